@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of a benchmark module with the GC profiler enabled to report allocation rates alongside the
+ * measured scores. Accepts the standard JMH command line options, e.g. {@code -p size=1000}. Runs all
+ * {@code example.*Benchmarks} unless benchmarks are selected explicitly, e.g. {@code ProjectionBenchmarks}.
+ *
+ * @author agent
+ */
+public class BenchmarkRunner {
+
+	private static final String DEFAULT_INCLUDE = "example\\..*Benchmarks";
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+
+		CommandLineOptions options = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+
+		if (options.getIncludes().isEmpty()) {
+			builder.include(DEFAULT_INCLUDE);
+		}
+
+		new Runner(builder //
+				.parent(options) //
+				.addProfiler(GCProfiler.class) //
+				.build()).run();
+	}
+}
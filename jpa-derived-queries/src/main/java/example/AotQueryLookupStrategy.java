@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.data.jpa.provider.PersistenceProvider;
+import org.springframework.data.jpa.repository.query.JpaQueryMethod;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.RepositoryQuery;
+
+/**
+ * {@link QueryLookupStrategy} creating {@link DerivedJpaQuery} instances from the {@link DerivedQueries} parsed at
+ * build time instead of parsing the method names. Methods not processed at build time, methods whose query isn't
+ * {@link DerivedJpaQuery#isDerived derived} and methods {@link DerivedJpaQuery} does not support are resolved by the
+ * given delegate.
+ *
+ * @author agent
+ */
+public class AotQueryLookupStrategy implements QueryLookupStrategy {
+
+	private final QueryLookupStrategy delegate;
+	private final EntityManager em;
+	private final DerivedQueries queries;
+	private final boolean enabled;
+
+	/**
+	 * Creates a new {@link AotQueryLookupStrategy}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param key the configured {@link Key}, can be {@literal null}. Queries are only derived ahead of time if the key
+	 *          allows creating queries.
+	 * @param em must not be {@literal null}.
+	 * @param queries must not be {@literal null}.
+	 */
+	public AotQueryLookupStrategy(QueryLookupStrategy delegate, Key key, EntityManager em, DerivedQueries queries) {
+
+		this.delegate = delegate;
+		this.em = em;
+		this.queries = queries;
+		this.enabled = key != Key.USE_DECLARED_QUERY;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.query.QueryLookupStrategy#resolveQuery(java.lang.reflect.Method, org.springframework.data.repository.core.RepositoryMetadata, org.springframework.data.projection.ProjectionFactory, org.springframework.data.repository.core.NamedQueries)
+	 */
+	@Override
+	public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata, ProjectionFactory factory,
+			NamedQueries namedQueries) {
+
+		DerivedQuery query = enabled ? queries.get(method) : null;
+
+		if (query == null) {
+			return delegate.resolveQuery(method, metadata, factory, namedQueries);
+		}
+
+		JpaQueryMethod queryMethod = new JpaQueryMethod(method, metadata, factory,
+				PersistenceProvider.fromEntityManager(em));
+
+		boolean[] ignorable = new boolean[method.getParameterTypes().length];
+
+		if (!DerivedJpaQuery.isDerived(method, queryMethod, namedQueries)
+				|| !DerivedJpaQuery.supports(queryMethod, query, ignorable)) {
+			return delegate.resolveQuery(method, metadata, factory, namedQueries);
+		}
+
+		return new DerivedJpaQuery(queryMethod, query, ignorable, em);
+	}
+}
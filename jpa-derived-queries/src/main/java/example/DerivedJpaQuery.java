@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.JpaQueryMethod;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.util.Assert;
+
+import example.DerivedQuery.Variant;
+
+/**
+ * {@link RepositoryQuery} executing a {@link DerivedQuery}. The JPQL for the variant with all arguments present is
+ * rendered and validated when the query is created, the variants for other combinations of {@literal null} and
+ * non-{@literal null} arguments are rendered on first use and cached. Invocations only pick the variant matching their
+ * arguments and bind the values.
+ *
+ * @author agent
+ */
+public class DerivedJpaQuery implements RepositoryQuery {
+
+	private static final int MAX_PARAMETERS = 8;
+
+	private final JpaQueryMethod method;
+	private final EntityManager em;
+	private final Class<?> domainType;
+	private final DerivedQuery query;
+	private final boolean[] ignorable;
+	private final String entityName;
+	private final AtomicReferenceArray<Variant> variants;
+
+	/**
+	 * Creates a new {@link DerivedJpaQuery} for the given query method, rendering and validating the variant with all
+	 * arguments present.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @param query the {@link DerivedQuery} of {@code method}, must not be {@literal null}.
+	 * @param ignorable the parameters whose predicate is to be left out if absent, must not be {@literal null}.
+	 * @param em must not be {@literal null}.
+	 * @throws IllegalArgumentException if the query method is not {@link #supports(JpaQueryMethod, DerivedQuery, boolean[])
+	 *           supported} or the rendered query is invalid.
+	 */
+	public DerivedJpaQuery(JpaQueryMethod method, DerivedQuery query, boolean[] ignorable, EntityManager em) {
+
+		Assert.isTrue(supports(method, query, ignorable), String.format("Query method %s is not supported!", method));
+
+		this.method = method;
+		this.em = em;
+		this.domainType = method.getEntityInformation().getJavaType();
+		this.query = query;
+		this.ignorable = ignorable;
+		this.entityName = em.getMetamodel().entity(domainType).getName();
+		this.variants = new AtomicReferenceArray<>(1 << ignorable.length);
+
+		Variant variant = query.render(entityName, ignorable, 0);
+
+		validate(variant.getJpql());
+		variants.set(0, variant);
+	}
+
+	/**
+	 * Returns whether a {@link DerivedJpaQuery} can be created for the given query method. Methods declaring special
+	 * parameters like {@link org.springframework.data.domain.Pageable}, more than {@value #MAX_PARAMETERS} parameters or
+	 * parameters not matching the query are to be resolved otherwise.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @param query the {@link DerivedQuery} of {@code method}, must not be {@literal null}.
+	 * @param ignorable the parameters whose predicate is to be left out if absent, must not be {@literal null}.
+	 * @return
+	 */
+	public static boolean supports(JpaQueryMethod method, DerivedQuery query, boolean[] ignorable) {
+
+		return !method.getParameters().hasSpecialParameter() && ignorable.length <= MAX_PARAMETERS
+				&& query.getNumberOfArguments() == ignorable.length;
+	}
+
+	/**
+	 * Returns whether the query of the given method is derived from its name, i.e. it neither declares a {@link Query}
+	 * nor has a named query and isn't configured through other annotations of
+	 * {@code org.springframework.data.jpa.repository} like {@link org.springframework.data.jpa.repository.Lock} or
+	 * {@link org.springframework.data.jpa.repository.EntityGraph} that a {@link DerivedJpaQuery} would ignore.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @param queryMethod the {@link JpaQueryMethod} for {@code method}, must not be {@literal null}.
+	 * @param namedQueries must not be {@literal null}.
+	 * @return
+	 */
+	public static boolean isDerived(Method method, JpaQueryMethod queryMethod, NamedQueries namedQueries) {
+
+		if (AnnotationUtils.findAnnotation(method, Query.class) != null
+				|| namedQueries.hasQuery(queryMethod.getNamedQueryName())) {
+			return false;
+		}
+
+		for (Annotation annotation : AnnotationUtils.getAnnotations(method)) {
+			if (annotation.annotationType().getPackage().equals(Query.class.getPackage())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.query.RepositoryQuery#execute(java.lang.Object[])
+	 */
+	@Override
+	public Object execute(Object[] parameters) {
+
+		int absent = 0;
+
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i] == null) {
+				absent |= 1 << i;
+			}
+		}
+
+		Variant variant = getVariant(absent);
+		TypedQuery<?> query = em.createQuery(variant.getJpql(), domainType);
+
+		for (int parameter : variant.getParameters()) {
+			query.setParameter(Variant.parameterName(parameter), parameters[parameter]);
+		}
+
+		if (method.isCollectionQuery()) {
+			return query.getResultList();
+		}
+
+		try {
+			return query.getSingleResult();
+		} catch (NoResultException o_O) {
+			return null;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.query.RepositoryQuery#getQueryMethod()
+	 */
+	@Override
+	public QueryMethod getQueryMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns the variant for the given combination of absent arguments, rendering it on first use. Concurrent first
+	 * invocations may render the same variant more than once, which is harmless as variants are immutable.
+	 */
+	private Variant getVariant(int absent) {
+
+		Variant variant = variants.get(absent);
+
+		if (variant == null) {
+
+			variant = query.render(entityName, ignorable, absent);
+			variants.set(absent, variant);
+		}
+
+		return variant;
+	}
+
+	/**
+	 * Compiles the given query on a dedicated {@link EntityManager} to reject invalid queries at startup and populate the
+	 * persistence provider's query plan cache without touching the shared one.
+	 */
+	private void validate(String jpql) {
+
+		EntityManager validatingEm = null;
+
+		try {
+
+			validatingEm = em.getEntityManagerFactory().createEntityManager();
+			validatingEm.createQuery(jpql, domainType);
+
+		} catch (RuntimeException o_O) {
+			throw new IllegalArgumentException(String.format("Validation failed for query %s of method %s!", jpql, method),
+					o_O);
+		} finally {
+
+			if (validatingEm != null) {
+				validatingEm.close();
+			}
+		}
+	}
+}
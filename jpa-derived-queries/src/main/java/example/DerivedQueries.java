@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * The {@link DerivedQuery} instances parsed at build time by {@link DerivedQueryProcessor}, loaded from all
+ * {@value #LOCATION} resources on the classpath.
+ *
+ * @author agent
+ */
+public class DerivedQueries {
+
+	/**
+	 * Location of the resources holding the derived queries keyed by {@link #key(Method)}.
+	 */
+	public static final String LOCATION = "META-INF/spring-data/derived-queries.properties";
+
+	private static final DerivedQueries NONE = new DerivedQueries(Collections.emptyMap());
+
+	private final Map<String, DerivedQuery> queries;
+
+	private DerivedQueries(Map<String, DerivedQuery> queries) {
+		this.queries = queries;
+	}
+
+	/**
+	 * Loads the derived queries from all {@value #LOCATION} resources visible to the given {@link ClassLoader}.
+	 *
+	 * @param classLoader must not be {@literal null}.
+	 * @return
+	 */
+	public static DerivedQueries load(ClassLoader classLoader) {
+
+		Map<String, DerivedQuery> queries = new HashMap<>();
+
+		try {
+
+			Enumeration<URL> resources = classLoader.getResources(LOCATION);
+
+			while (resources.hasMoreElements()) {
+
+				Properties properties = new Properties();
+
+				try (InputStream stream = resources.nextElement().openStream()) {
+					properties.load(stream);
+				}
+
+				for (String key : properties.stringPropertyNames()) {
+					queries.put(key, DerivedQuery.deserialize(properties.getProperty(key)));
+				}
+			}
+
+		} catch (IOException o_O) {
+			throw new IllegalStateException(String.format("Could not load %s!", LOCATION), o_O);
+		}
+
+		return new DerivedQueries(queries);
+	}
+
+	/**
+	 * Returns {@link DerivedQueries} not containing any query.
+	 *
+	 * @return
+	 */
+	public static DerivedQueries none() {
+		return NONE;
+	}
+
+	/**
+	 * Returns the {@link DerivedQuery} for the given query method.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @return the {@link DerivedQuery} or {@literal null} if the method was not processed at build time.
+	 */
+	public DerivedQuery get(Method method) {
+		return queries.isEmpty() ? null : queries.get(key(method));
+	}
+
+	/**
+	 * Returns the number of derived queries.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return queries.size();
+	}
+
+	/**
+	 * Returns the key of the given method, e.g. {@code example.PersonRepository.findByGender(java.lang.String)}.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @return
+	 */
+	static String key(Method method) {
+
+		String[] parameterTypes = new String[method.getParameterTypes().length];
+
+		for (int i = 0; i < parameterTypes.length; i++) {
+			parameterTypes[i] = method.getParameterTypes()[i].getName();
+		}
+
+		return method.getDeclaringClass().getName() + "." + method.getName() + "("
+				+ StringUtils.arrayToCommaDelimitedString(parameterTypes) + ")";
+	}
+}
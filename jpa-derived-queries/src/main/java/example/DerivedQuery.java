@@ -0,0 +1,431 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.Part.IgnoreCaseType;
+import org.springframework.data.repository.query.parser.Part.Type;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.util.StringUtils;
+
+/**
+ * The parsed form of a derived query method name: the predicates grouped into disjuncts of conjunctions, whether the
+ * query is distinct and its ordering. Created from a method name by {@link DerivedQueryProcessor} at build time or from
+ * a {@link PartTree} at runtime, and rendered into JPQL for each combination of {@literal null} arguments, see
+ * {@link DerivedJpaQuery}.
+ * <p>
+ * Only a subset of query derivation is supported: simple property references without nested paths, the comparison,
+ * {@code Like} and {@code (Not)Null} keywords, {@code Distinct} and {@code OrderBy}. Method names using other features
+ * are left to Spring Data.
+ *
+ * @author agent
+ */
+public class DerivedQuery {
+
+	static final Set<Type> SUPPORTED_TYPES = EnumSet.of(Type.SIMPLE_PROPERTY, Type.NEGATING_SIMPLE_PROPERTY,
+			Type.GREATER_THAN, Type.GREATER_THAN_EQUAL, Type.LESS_THAN, Type.LESS_THAN_EQUAL, Type.LIKE, Type.IS_NULL,
+			Type.IS_NOT_NULL);
+
+	private static final String ALIAS = "e";
+	private static final String KEYWORD_TEMPLATE = "(%s)(?=(\\p{Lu}|\\P{InBASIC_LATIN}))";
+	private static final Pattern PREFIX = Pattern.compile("^(find|read|get|query|stream)((\\p{Lu}.*?))??By");
+	private static final Pattern LIMITING = Pattern.compile("(First|Top)(\\d*)?");
+	private static final Pattern IGNORE_CASE = Pattern.compile("Ignor(ing|e)Case");
+	private static final Pattern ORDER = Pattern.compile("(.+?)(Asc|Desc)?$");
+
+	private final boolean distinct;
+	private final List<List<Criterion>> disjuncts;
+	private final List<Order> orders;
+
+	private DerivedQuery(boolean distinct, List<List<Criterion>> disjuncts, List<Order> orders) {
+
+		this.distinct = distinct;
+		this.disjuncts = disjuncts;
+		this.orders = orders;
+	}
+
+	/**
+	 * Parses the given query method name following the rules of {@link PartTree}.
+	 *
+	 * @param methodName must not be {@literal null}.
+	 * @param isProperty tells whether the domain type declares a property with the given name, must not be
+	 *          {@literal null}.
+	 * @return the {@link DerivedQuery} or {@literal null} if the method name is not a derived query or uses features or
+	 *         properties not supported.
+	 */
+	public static DerivedQuery parse(String methodName, Predicate<String> isProperty) {
+
+		Matcher prefix = PREFIX.matcher(methodName);
+
+		if (!prefix.find()) {
+			return null;
+		}
+
+		String subject = prefix.group(2);
+
+		if (subject != null && LIMITING.matcher(subject).find()) {
+			return null;
+		}
+
+		String[] predicateAndOrder = methodName.substring(prefix.group().length()).split("OrderBy");
+
+		if (predicateAndOrder.length > 2 || IGNORE_CASE.matcher(predicateAndOrder[0]).find()) {
+			return null;
+		}
+
+		List<List<Criterion>> disjuncts = new ArrayList<>();
+
+		for (String or : split(predicateAndOrder[0], "Or")) {
+
+			List<Criterion> conjuncts = new ArrayList<>();
+
+			for (String and : split(or, "And")) {
+
+				if (!StringUtils.hasText(and)) {
+					continue;
+				}
+
+				Type type = Type.fromProperty(and);
+				String property = property(type.extractProperty(and));
+
+				if (!SUPPORTED_TYPES.contains(type) || !isProperty.test(property)) {
+					return null;
+				}
+
+				conjuncts.add(new Criterion(property, type));
+			}
+
+			disjuncts.add(conjuncts);
+		}
+
+		List<Order> orders = new ArrayList<>();
+
+		if (predicateAndOrder.length == 2) {
+
+			for (String order : predicateAndOrder[1].split("(?<=Asc|Desc)(?=\\p{Lu})")) {
+
+				Matcher matcher = ORDER.matcher(order);
+
+				if (!matcher.find() || !isProperty.test(property(matcher.group(1)))) {
+					return null;
+				}
+
+				orders.add(new Order("Desc".equals(matcher.group(2)) ? Direction.DESC : Direction.ASC,
+						property(matcher.group(1))));
+			}
+		}
+
+		return new DerivedQuery(subject != null && subject.contains("Distinct"), disjuncts, orders);
+	}
+
+	/**
+	 * Creates a {@link DerivedQuery} from the given {@link PartTree}.
+	 *
+	 * @param tree must not be {@literal null}.
+	 * @return
+	 * @throws IllegalStateException if the {@link PartTree} uses features not supported.
+	 */
+	public static DerivedQuery from(PartTree tree) {
+
+		if (tree.isCountProjection() || tree.isDelete() || tree.isLimiting()) {
+			throw new IllegalStateException(String.format("Query %s is not supported!", tree));
+		}
+
+		List<List<Criterion>> disjuncts = new ArrayList<>();
+
+		for (PartTree.OrPart or : tree) {
+
+			List<Criterion> conjuncts = new ArrayList<>();
+
+			for (Part part : or) {
+
+				if (!SUPPORTED_TYPES.contains(part.getType()) || part.shouldIgnoreCase() != IgnoreCaseType.NEVER) {
+					throw new IllegalStateException(String.format("Query %s uses %s which is not supported!", tree, part));
+				}
+
+				conjuncts.add(new Criterion(part.getProperty().toDotPath(), part.getType()));
+			}
+
+			disjuncts.add(conjuncts);
+		}
+
+		List<Order> orders = new ArrayList<>();
+
+		if (tree.getSort() != null) {
+			tree.getSort().forEach(orders::add);
+		}
+
+		return new DerivedQuery(tree.isDistinct(), disjuncts, orders);
+	}
+
+	/**
+	 * Reads a {@link DerivedQuery} written by {@link #serialize()}.
+	 *
+	 * @param source must not be {@literal null}.
+	 * @return
+	 */
+	public static DerivedQuery deserialize(String source) {
+
+		String[] sections = source.split(";", -1);
+
+		if (sections.length != 3) {
+			throw new IllegalArgumentException(String.format("Invalid derived query %s!", source));
+		}
+
+		List<List<Criterion>> disjuncts = new ArrayList<>();
+
+		for (String or : StringUtils.delimitedListToStringArray(sections[1], "|")) {
+
+			List<Criterion> conjuncts = new ArrayList<>();
+
+			for (String and : StringUtils.commaDelimitedListToStringArray(or)) {
+
+				String[] criterion = and.split(":");
+				conjuncts.add(new Criterion(criterion[0], Type.valueOf(criterion[1])));
+			}
+
+			disjuncts.add(conjuncts);
+		}
+
+		List<Order> orders = new ArrayList<>();
+
+		for (String order : StringUtils.commaDelimitedListToStringArray(sections[2])) {
+
+			String[] parts = order.split(":");
+			orders.add(new Order(Direction.valueOf(parts[1]), parts[0]));
+		}
+
+		return new DerivedQuery(Boolean.parseBoolean(sections[0]), disjuncts, orders);
+	}
+
+	/**
+	 * Writes this {@link DerivedQuery} into its compact textual form, e.g.
+	 * {@code false;gender:SIMPLE_PROPERTY,lastname:SIMPLE_PROPERTY;lastname:ASC}.
+	 *
+	 * @return
+	 */
+	public String serialize() {
+
+		List<String> ors = new ArrayList<>();
+
+		for (List<Criterion> conjuncts : disjuncts) {
+
+			List<String> ands = new ArrayList<>();
+
+			for (Criterion criterion : conjuncts) {
+				ands.add(criterion.property + ":" + criterion.type.name());
+			}
+
+			ors.add(StringUtils.collectionToCommaDelimitedString(ands));
+		}
+
+		List<String> orderings = new ArrayList<>();
+
+		for (Order order : orders) {
+			orderings.add(order.getProperty() + ":" + order.getDirection().name());
+		}
+
+		return distinct + ";" + StringUtils.collectionToDelimitedString(ors, "|") + ";"
+				+ StringUtils.collectionToCommaDelimitedString(orderings);
+	}
+
+	/**
+	 * Returns the number of method arguments the query consumes.
+	 *
+	 * @return
+	 */
+	public int getNumberOfArguments() {
+
+		int arguments = 0;
+
+		for (List<Criterion> conjuncts : disjuncts) {
+			for (Criterion criterion : conjuncts) {
+				arguments += criterion.type.getNumberOfArguments();
+			}
+		}
+
+		return arguments;
+	}
+
+	/**
+	 * Renders the JPQL for the given combination of absent ({@literal null}) arguments. Equality predicates on absent
+	 * arguments turn into {@code is (not) null} checks, the predicates of absent {@code ignorable} arguments are left
+	 * out. A disjunct without predicates matches all entities.
+	 *
+	 * @param entityName must not be {@literal null}.
+	 * @param ignorable the arguments whose predicate is to be left out if absent, must not be {@literal null}.
+	 * @param absent bit mask of the arguments being {@literal null}.
+	 * @return
+	 */
+	Variant render(String entityName, boolean[] ignorable, int absent) {
+
+		List<String> rendered = new ArrayList<>();
+		List<Integer> bound = new ArrayList<>();
+		boolean unrestricted = false;
+		int index = 0;
+
+		for (List<Criterion> conjuncts : disjuncts) {
+
+			List<String> predicates = new ArrayList<>();
+
+			for (Criterion criterion : conjuncts) {
+
+				String path = ALIAS + "." + criterion.property;
+
+				if (criterion.type.getNumberOfArguments() == 0) {
+					predicates.add(path + (criterion.type == Type.IS_NULL ? " is null" : " is not null"));
+					continue;
+				}
+
+				int parameter = index++;
+				boolean isAbsent = (absent & 1 << parameter) != 0;
+
+				if (isAbsent && ignorable[parameter]) {
+					continue;
+				}
+
+				if (isAbsent && criterion.type == Type.SIMPLE_PROPERTY) {
+					predicates.add(path + " is null");
+				} else if (isAbsent && criterion.type == Type.NEGATING_SIMPLE_PROPERTY) {
+					predicates.add(path + " is not null");
+				} else {
+					predicates.add(path + " " + operator(criterion.type) + " :" + Variant.parameterName(parameter));
+					bound.add(parameter);
+				}
+			}
+
+			unrestricted |= predicates.isEmpty();
+			rendered.add(StringUtils.collectionToDelimitedString(predicates, " and "));
+		}
+
+		String jpql = String.format("select %s%s from %s %s", distinct ? "distinct " : "", ALIAS, entityName, ALIAS);
+
+		if (unrestricted) {
+			bound.clear();
+		} else if (!rendered.isEmpty()) {
+			jpql += " where " + (rendered.size() == 1 ? rendered.get(0)
+					: "(" + StringUtils.collectionToDelimitedString(rendered, ") or (") + ")");
+		}
+
+		int[] parameters = new int[bound.size()];
+
+		for (int i = 0; i < parameters.length; i++) {
+			parameters[i] = bound.get(i);
+		}
+
+		return new Variant(QueryUtils.applySorting(jpql, orders.isEmpty() ? null : new Sort(orders), ALIAS), parameters);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return serialize();
+	}
+
+	private static List<String> split(String text, String keyword) {
+
+		List<String> parts = new ArrayList<>();
+		Collections.addAll(parts, Pattern.compile(String.format(KEYWORD_TEMPLATE, keyword)).split(text));
+
+		return parts;
+	}
+
+	/**
+	 * Mirrors {@link org.springframework.data.mapping.PropertyPath}: names in upper case are kept, others are
+	 * uncapitalized. Nested paths are not supported.
+	 */
+	private static String property(String source) {
+		return source.matches("^[A-Z0-9._$]+$") ? source : StringUtils.uncapitalize(source);
+	}
+
+	private static String operator(Type type) {
+
+		switch (type) {
+			case NEGATING_SIMPLE_PROPERTY:
+				return "<>";
+			case GREATER_THAN:
+				return ">";
+			case GREATER_THAN_EQUAL:
+				return ">=";
+			case LESS_THAN:
+				return "<";
+			case LESS_THAN_EQUAL:
+				return "<=";
+			case LIKE:
+				return "like";
+			default:
+				return "=";
+		}
+	}
+
+	/**
+	 * A predicate on a property of the domain type.
+	 */
+	private static class Criterion {
+
+		private final String property;
+		private final Type type;
+
+		Criterion(String property, Type type) {
+
+			this.property = property;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * The JPQL for a combination of absent arguments along with the indexes of the arguments to bind.
+	 */
+	static class Variant {
+
+		private final String jpql;
+		private final int[] parameters;
+
+		private Variant(String jpql, int[] parameters) {
+
+			this.jpql = jpql;
+			this.parameters = parameters;
+		}
+
+		String getJpql() {
+			return jpql;
+		}
+
+		int[] getParameters() {
+			return parameters;
+		}
+
+		static String parameterName(int parameter) {
+			return "p" + parameter;
+		}
+	}
+}
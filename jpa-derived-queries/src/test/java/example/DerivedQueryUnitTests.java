@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+import org.springframework.data.repository.query.parser.PartTree;
+
+/**
+ * Unit tests for {@link DerivedQuery}.
+ *
+ * @author agent
+ */
+public class DerivedQueryUnitTests {
+
+	static final List<String> PROPERTIES = Arrays.asList("firstname", "lastname", "age");
+	static final Predicate<String> IS_PROPERTY = PROPERTIES::contains;
+
+	@Test
+	public void rendersParsedMethodName() {
+
+		DerivedQuery query = DerivedQuery.parse("findDistinctByLastnameAndAgeGreaterThanOrFirstnameOrderByAgeDesc",
+				IS_PROPERTY);
+
+		assertThat(query.getNumberOfArguments(), is(3));
+		assertThat(query.render("Person", new boolean[3], 0).getJpql(),
+				is("select distinct e from Person e where (e.lastname = :p0 and e.age > :p1) or (e.firstname = :p2) "
+						+ "order by e.age desc"));
+	}
+
+	@Test
+	public void rendersVariantsForAbsentArguments() {
+
+		DerivedQuery query = DerivedQuery.parse("findByLastnameAndFirstname", IS_PROPERTY);
+
+		assertThat(query.render("Person", new boolean[2], 0b01).getJpql(),
+				is("select e from Person e where e.lastname is null and e.firstname = :p1"));
+		assertThat(query.render("Person", new boolean[] { true, false }, 0b01).getJpql(),
+				is("select e from Person e where e.firstname = :p1"));
+		assertThat(query.render("Person", new boolean[] { true, true }, 0b11).getJpql(), is("select e from Person e"));
+	}
+
+	@Test
+	public void matchesPartTree() {
+
+		for (String methodName : Arrays.asList("findByLastname", "readByAgeLessThanEqualAndFirstnameLike",
+				"findAllProjectedBy", "getByFirstnameIsNotNullOrLastnameNotOrderByFirstnameAscAgeDesc")) {
+
+			assertThat(DerivedQuery.parse(methodName, IS_PROPERTY).serialize(),
+					is(DerivedQuery.from(new PartTree(methodName, Person.class)).serialize()));
+		}
+	}
+
+	@Test
+	public void roundTripsSerializedForm() {
+
+		DerivedQuery query = DerivedQuery.parse("findByAgeGreaterThanOrLastnameIsNullOrderByLastname", IS_PROPERTY);
+
+		assertThat(query.serialize(), is("false;age:GREATER_THAN|lastname:IS_NULL;lastname:ASC"));
+		assertThat(DerivedQuery.deserialize(query.serialize()).serialize(), is(query.serialize()));
+	}
+
+	@Test
+	public void rejectsUnsupportedMethodNames() {
+
+		for (String methodName : Arrays.asList("countByLastname", "findFirstByLastname", "findByLastnameIgnoreCase",
+				"findByLastnameStartingWith", "findByAddressCity", "save")) {
+			assertThat(methodName, DerivedQuery.parse(methodName, IS_PROPERTY), is(nullValue()));
+		}
+	}
+
+	static class Person {
+
+		String firstname, lastname;
+		int age;
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor parsing the derived query methods of Spring Data repository interfaces at build time. The
+ * parsed {@link DerivedQuery} of each supported method is written to {@value DerivedQueries#LOCATION}, so that
+ * repositories created through an {@link AotQueryLookupStrategy} don't need to parse method names at startup.
+ * <p>
+ * Picked up by {@code javac} from the classpath, declared with {@code provided} scope so that it doesn't run for
+ * modules depending on the processed one. Repositories read the result through the {@code jpa-derived-queries}
+ * runtime artifact. Methods are only processed if they return the domain type of the repository (directly, in a
+ * collection, an {@link java.util.Optional} or a future) and take one argument per predicate. Methods with a named query or any annotation of Spring Data JPA's repository package, e.g. a declared
+ * query, {@code @Lock}, {@code @QueryHints} or {@code @EntityGraph}, are left to Spring Data.
+ *
+ * @author agent
+ */
+@SupportedAnnotationTypes("*")
+public class DerivedQueryProcessor extends AbstractProcessor {
+
+	private static final String REPOSITORY = "org.springframework.data.repository.Repository";
+	private static final String JPA_REPOSITORY_PACKAGE = "org.springframework.data.jpa.repository";
+	private static final List<String> WRAPPERS = Arrays.asList("java.lang.Iterable", "java.util.Collection",
+			"java.util.List", "java.util.Optional", "java.util.concurrent.Future", "java.util.concurrent.CompletionStage",
+			"java.util.concurrent.CompletableFuture");
+
+	private final Map<String, String> queries = new TreeMap<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+		if (roundEnv.processingOver()) {
+			write();
+			return false;
+		}
+
+		TypeElement repository = processingEnv.getElementUtils().getTypeElement(REPOSITORY);
+
+		if (repository != null) {
+			for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+				process(type, repository);
+			}
+		}
+
+		// Never claim annotations, other processors (e.g. Lombok) need to see them
+		return false;
+	}
+
+	private void process(TypeElement type, TypeElement repository) {
+
+		for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+			process(nested, repository);
+		}
+
+		DeclaredType repositoryType = type.getKind() == ElementKind.INTERFACE ? findSupertype(type.asType(), repository)
+				: null;
+
+		if (repositoryType == null || repositoryType.getTypeArguments().isEmpty()
+				|| repositoryType.getTypeArguments().get(0).getKind() != TypeKind.DECLARED) {
+			return;
+		}
+
+		TypeMirror domainType = repositoryType.getTypeArguments().get(0);
+		TypeElement domainElement = (TypeElement) processingEnv.getTypeUtils().asElement(domainType);
+
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+
+			if (method.getModifiers().contains(Modifier.DEFAULT) || method.getModifiers().contains(Modifier.STATIC)
+					|| hasJpaRepositoryAnnotation(method) || hasNamedQuery(domainElement, method)
+					|| !returns(method.getReturnType(), domainType)) {
+				continue;
+			}
+
+			String key = key(type, method);
+			DerivedQuery query = DerivedQuery.parse(method.getSimpleName().toString(),
+					property -> hasField(domainElement, property));
+
+			if (key != null && query != null && query.getNumberOfArguments() == method.getParameters().size()) {
+				queries.put(key, query.serialize());
+			}
+		}
+	}
+
+	/**
+	 * Returns the supertype of the given type that is a parameterization of the given {@code supertype}.
+	 */
+	private DeclaredType findSupertype(TypeMirror type, TypeElement supertype) {
+
+		for (TypeMirror candidate : processingEnv.getTypeUtils().directSupertypes(type)) {
+
+			if (candidate.getKind() != TypeKind.DECLARED) {
+				continue;
+			}
+
+			if (((DeclaredType) candidate).asElement().equals(supertype)) {
+				return (DeclaredType) candidate;
+			}
+
+			DeclaredType result = findSupertype(candidate, supertype);
+
+			if (result != null) {
+				return result;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns whether the given return type is the domain type or wraps it in a collection, {@link java.util.Optional}
+	 * or future.
+	 */
+	private boolean returns(TypeMirror returnType, TypeMirror domainType) {
+
+		if (processingEnv.getTypeUtils().isSameType(returnType, domainType)) {
+			return true;
+		}
+
+		if (returnType.getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+
+		DeclaredType declaredType = (DeclaredType) returnType;
+		String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+
+		return WRAPPERS.contains(name) && declaredType.getTypeArguments().size() == 1
+				&& returns(declaredType.getTypeArguments().get(0), domainType);
+	}
+
+	/**
+	 * Returns the key of the given method as computed by {@link DerivedQueries#key(java.lang.reflect.Method)} or
+	 * {@literal null} if it has parameters that cannot be expressed by their erasure.
+	 */
+	private String key(TypeElement type, ExecutableElement method) {
+
+		StringBuilder key = new StringBuilder(processingEnv.getElementUtils().getBinaryName(type))
+				.append('.').append(method.getSimpleName()).append('(');
+
+		for (VariableElement parameter : method.getParameters()) {
+
+			TypeMirror erasure = processingEnv.getTypeUtils().erasure(parameter.asType());
+
+			if (erasure.getKind() == TypeKind.DECLARED) {
+				key.append(processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erasure).asElement()));
+			} else if (erasure.getKind().isPrimitive()) {
+				key.append(erasure.toString());
+			} else {
+				return null;
+			}
+
+			key.append(',');
+		}
+
+		if (key.charAt(key.length() - 1) == ',') {
+			key.setLength(key.length() - 1);
+		}
+
+		return key.append(')').toString();
+	}
+
+	private boolean hasField(TypeElement type, String name) {
+
+		for (Element element = type; element instanceof TypeElement; element = processingEnv.getTypeUtils()
+				.asElement(((TypeElement) element).getSuperclass())) {
+
+			for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+				if (field.getSimpleName().contentEquals(name) && !field.getModifiers().contains(Modifier.STATIC)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns whether the given element carries an annotation declared in {@value #JPA_REPOSITORY_PACKAGE}, configuring
+	 * the query in a way {@link DerivedJpaQuery} would ignore.
+	 */
+	private boolean hasJpaRepositoryAnnotation(Element element) {
+
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+
+			Element annotationType = annotation.getAnnotationType().asElement();
+
+			if (processingEnv.getElementUtils().getPackageOf(annotationType).getQualifiedName()
+					.contentEquals(JPA_REPOSITORY_PACKAGE)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+	/**
+	 * Returns whether the domain type declares a JPA named query that Spring Data would use for the given method.
+	 */
+	private static boolean hasNamedQuery(TypeElement domainType, ExecutableElement method) {
+
+		NamedQueries namedQueries = domainType.getAnnotation(NamedQueries.class);
+		NamedQuery namedQuery = domainType.getAnnotation(NamedQuery.class);
+		String suffix = "." + method.getSimpleName();
+
+		if (namedQuery != null && namedQuery.name().endsWith(suffix)) {
+			return true;
+		}
+
+		if (namedQueries != null) {
+			for (NamedQuery candidate : namedQueries.value()) {
+				if (candidate.name().endsWith(suffix)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void write() {
+
+		if (queries.isEmpty()) {
+			return;
+		}
+
+		try {
+
+			FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					DerivedQueries.LOCATION);
+
+			try (Writer writer = resource.openWriter()) {
+
+				writer.write("# Generated by " + getClass().getName() + "\n");
+
+				for (Entry<String, String> query : queries.entrySet()) {
+					writer.write(query.getKey() + "=" + query.getValue() + "\n");
+				}
+			}
+
+		} catch (IOException o_O) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					String.format("Could not write %s: %s", DerivedQueries.LOCATION, o_O.getMessage()));
+		}
+	}
+}
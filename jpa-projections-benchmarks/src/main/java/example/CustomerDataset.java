@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * JMH state bootstrapping the application against the embedded database and seeding it with {@link #size} customers.
+ * The customers are spread evenly across {@value #FIRSTNAMES} first names.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class CustomerDataset {
+
+	private static final int CHUNK_SIZE = 1000;
+	private static final int FIRSTNAMES = 10;
+
+	/**
+	 * The number of customers to seed the database with. Needs to be large enough for the customers sharing a first
+	 * name to span several keyset pages.
+	 */
+	@Param({ "1000", "10000" }) int size;
+
+	ConfigurableApplicationContext context;
+	CustomerRepository customers;
+	EntityManager em;
+	ProjectionFactory projectionFactory;
+	TransactionTemplate transactions;
+	Long deepPageOffset;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(BenchmarkApplication.class) //
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN") //
+				.run();
+
+		this.customers = context.getBean(CustomerRepository.class);
+		this.projectionFactory = context.getBean(ProjectionFactory.class);
+		this.em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+		this.transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+		for (int offset = 0; offset < size; offset += CHUNK_SIZE) {
+
+			List<Customer> chunk = new ArrayList<>(CHUNK_SIZE);
+
+			for (int i = offset; i < Math.min(offset + CHUNK_SIZE, size); i++) {
+				chunk.add(new Customer("Firstname " + i % FIRSTNAMES, "Lastname " + i));
+			}
+
+			transactions.execute(status -> customers.save(chunk));
+		}
+
+		// Skip all but the last page of the customers sharing the first name
+		int skipped = size / FIRSTNAMES - ProjectionBenchmarks.PAGE_SIZE;
+
+		Assert.isTrue(skipped >= ProjectionBenchmarks.PAGE_SIZE,
+				String.format("Dataset of %d customers is too small for a deep keyset page!", size));
+
+		this.deepPageOffset = customers.findNextByFirstname("Firstname 0", null, skipped) //
+				.getContent().stream() //
+				.reduce((first, second) -> second) //
+				.map(CustomerKeysetProjection::getId) //
+				.orElse(null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks comparing the different projection styles supported by {@link CustomerRepository}. Every benchmark
+ * consumes all projected properties so that lazily evaluated projections pay their full price.
+ *
+ * @author agent
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class ProjectionBenchmarks {
+
+	static final int PAGE_SIZE = 10;
+
+	private static final String TUPLE_QUERY = "select c.firstname as firstname, c.lastname as lastname from Customer c";
+	private static final String DTO_CONSTRUCTOR_EXPRESSION = "select new example.CustomerDto(c.firstname) from Customer c";
+
+	@Benchmark
+	public void closedInterfaceProjection(CustomerDataset dataset, Blackhole blackhole) {
+		consumeProjections(dataset.customers.findAllProjectedBy(), blackhole);
+	}
+
+	@Benchmark
+	public void concreteClassProjection(CustomerDataset dataset, Blackhole blackhole) {
+		consumeProjections(dataset.customers.findAllSimpleProjectedBy(), blackhole);
+	}
+
+	@Benchmark
+	public void columnarProjection(CustomerDataset dataset, Blackhole blackhole) {
+
+		ProjectionColumns columns = dataset.customers.findAllProjectedColumnsBy(CustomerKeysetProjection.class);
+
+		blackhole.consume(columns.getLongs("id"));
+		blackhole.consume(columns.getStrings("firstname"));
+	}
+
+	@Benchmark
+	public void openSpelProjection(CustomerDataset dataset, Blackhole blackhole) {
+
+		for (CustomerSummary summary : dataset.customers.findAllSummarizedBy()) {
+			blackhole.consume(summary.getFullName());
+		}
+	}
+
+	/**
+	 * Reference for {@link #dtoMethodHandleProjection(CustomerDataset, Blackhole)} executing the constructor expression
+	 * Spring Data derives for DTO projections.
+	 */
+	@Benchmark
+	public void dtoConstructorExpressionProjection(CustomerDataset dataset, Blackhole blackhole) {
+		consumeDtos(dataset.em.createQuery(DTO_CONSTRUCTOR_EXPRESSION, CustomerDto.class).getResultList().stream(),
+				blackhole);
+	}
+
+	@Benchmark
+	public void dtoMethodHandleProjection(CustomerDataset dataset, Blackhole blackhole) {
+		consumeDtos(dataset.customers.findAllDtoedBy().stream(), blackhole);
+	}
+
+	/**
+	 * Reference for {@link #tupleBackedProjection(CustomerDataset, Blackhole)} copying each tuple into a map backing the
+	 * projection proxy as Spring Data does for declared queries.
+	 */
+	@Benchmark
+	public void queryTupleProjection(CustomerDataset dataset, Blackhole blackhole) {
+
+		for (Tuple tuple : dataset.em.createQuery(TUPLE_QUERY, Tuple.class).getResultList()) {
+
+			Map<String, Object> copy = new HashMap<>();
+
+			for (TupleElement<?> element : tuple.getElements()) {
+				copy.put(element.getAlias(), tuple.get(element));
+			}
+
+			blackhole.consume(dataset.projectionFactory.createProjection(CustomerProjection.class, copy).getFirstname());
+		}
+	}
+
+	@Benchmark
+	public void tupleBackedProjection(CustomerDataset dataset, Blackhole blackhole) {
+
+		for (CustomerProjection projection : dataset.customers.findsByProjectedColumns()) {
+			blackhole.consume(projection.getFirstname());
+		}
+	}
+
+	@Benchmark
+	public void dynamicProjection(CustomerDataset dataset, Blackhole blackhole) {
+		consumeProjections(dataset.customers.findByFirstname("Firstname 0", CustomerProjection.class), blackhole);
+	}
+
+	@Benchmark
+	public void keysetFirstPage(CustomerDataset dataset, Blackhole blackhole) {
+		consumeKeysetProjections(dataset.customers.findNextByFirstname("Firstname 0", null, PAGE_SIZE), blackhole);
+	}
+
+	@Benchmark
+	public void keysetDeepPage(CustomerDataset dataset, Blackhole blackhole) {
+		consumeKeysetProjections(
+				dataset.customers.findNextByFirstname("Firstname 0", dataset.deepPageOffset, PAGE_SIZE), blackhole);
+	}
+
+	private static void consumeProjections(Iterable<? extends CustomerProjection> projections, Blackhole blackhole) {
+
+		for (CustomerProjection projection : projections) {
+			blackhole.consume(projection.getFirstname());
+		}
+	}
+
+	private static void consumeKeysetProjections(Iterable<CustomerKeysetProjection> projections, Blackhole blackhole) {
+
+		for (CustomerKeysetProjection projection : projections) {
+			blackhole.consume(projection.getId());
+			blackhole.consume(projection.getFirstname());
+		}
+	}
+
+	private static void consumeDtos(Stream<CustomerDto> dtos, Blackhole blackhole) {
+		dtos.forEach(dto -> blackhole.consume(dto.getFirstname()));
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * {@link SpelAwareProxyProjectionFactory} that parses the SpEL expressions of open projections once per projection
+ * method instead of once per proxy instance. Expressions are parsed in {@link SpelCompilerMode#MIXED} mode so that, as
+ * they are shared across all proxies, they get compiled to bytecode after the first evaluations and fall back to
+ * interpretation if the compiled form cannot handle a target.
+ *
+ * @author agent
+ */
+public class CompiledSpelProjectionFactory extends SpelAwareProxyProjectionFactory {
+
+	private static final ParserContext PARSER_CONTEXT = new TemplateParserContext();
+
+	private final Map<Class<?>, Map<Method, Expression>> expressions = new ConcurrentHashMap<>();
+
+	private SpelExpressionParser parser = createParser(null);
+	private BeanFactory beanFactory;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.projection.ProxyProjectionFactory#setBeanClassLoader(java.lang.ClassLoader)
+	 */
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+
+		super.setBeanClassLoader(classLoader);
+
+		this.parser = createParser(classLoader);
+		this.expressions.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.projection.SpelAwareProxyProjectionFactory#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+
+		super.setBeanFactory(beanFactory);
+
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * Returns a {@link MethodInterceptor} evaluating the cached {@link Expression}s of the given projection type against
+	 * the source object or the given interceptor as is if the projection does not use any {@link Value} annotations.
+	 *
+	 * @param interceptor the root {@link MethodInterceptor}.
+	 * @param source The backing source object.
+	 * @param projectionType the proxy target type.
+	 * @return
+	 */
+	@Override
+	protected MethodInterceptor postProcessAccessorInterceptor(MethodInterceptor interceptor, Object source,
+			Class<?> projectionType) {
+
+		Map<Method, Expression> expressions = this.expressions.computeIfAbsent(projectionType, this::parseExpressions);
+
+		if (expressions.isEmpty()) {
+			return interceptor;
+		}
+
+		StandardEvaluationContext evaluationContext = new StandardEvaluationContext(new TargetWrapper(source));
+
+		if (source instanceof Map) {
+			evaluationContext.addPropertyAccessor(new MapAccessor());
+		}
+
+		if (beanFactory != null) {
+			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
+		}
+
+		return invocation -> {
+
+			Expression expression = expressions.get(invocation.getMethod());
+
+			return expression == null ? interceptor.invoke(invocation) : expression.getValue(evaluationContext);
+		};
+	}
+
+	private Map<Method, Expression> parseExpressions(Class<?> projectionType) {
+
+		Map<Method, Expression> expressions = new HashMap<>();
+
+		for (Method method : projectionType.getMethods()) {
+
+			Value value = AnnotationUtils.findAnnotation(method, Value.class);
+
+			if (value != null) {
+				expressions.put(method, parser.parseExpression(value.value(), PARSER_CONTEXT));
+			}
+		}
+
+		return Collections.unmodifiableMap(expressions);
+	}
+
+	private static SpelExpressionParser createParser(ClassLoader classLoader) {
+		return new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, classLoader));
+	}
+
+	/**
+	 * Exposes the projection source as {@code target} to the SpEL expressions. Needs to be public so that compiled
+	 * expressions can access it.
+	 */
+	public static class TargetWrapper {
+
+		private final Object target;
+
+		public TargetWrapper(Object target) {
+			this.target = target;
+		}
+
+		public Object getTarget() {
+			return target;
+		}
+	}
+}
@@ -15,24 +15,41 @@
  */
 package example;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
 /**
  * @author Oliver Gierke
  */
 @Data
 @Entity
+@Table(indexes = @Index(name = "customer_firstname_id", columnList = "firstname, id"))
 @RequiredArgsConstructor
+@ToString(exclude = "addresses")
+@EqualsAndHashCode(exclude = "addresses")
 public class Customer {
 
 	private @GeneratedValue @Id Long id;
 	private final String firstname, lastname;
 
+	@OneToMany(cascade = CascadeType.ALL, orphanRemoval = true) //
+	@JoinColumn(name = "customer_id") //
+	private List<Address> addresses = new ArrayList<>();
+
 	protected Customer() {
 		this.firstname = null;
 		this.lastname = null;
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+/**
+ * Projection for keyset pagination exposing the identifier so that the next window can start after the last element
+ * of the previous one, see {@link CustomerRepository#findNextByFirstname(String, Long, int)}. Doesn't extend
+ * {@link CustomerProjection} as derived queries would select the inherited properties twice.
+ *
+ * @author agent
+ */
+public interface CustomerKeysetProjection {
+
+	Long getId();
+
+	String getFirstname();
+}
@@ -15,16 +15,37 @@
  */
 package example;
 
+import static org.hibernate.jpa.QueryHints.*;
+
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.scheduling.annotation.Async;
 
 /**
  * @author Oliver Gierke
  */
-public interface CustomerRepository extends CrudRepository<Customer, Long> {
+public interface CustomerRepository extends CrudRepository<Customer, Long>, CustomerRepositoryCustom {
+
+	/**
+	 * Number of rows the JDBC driver fetches per round trip when iterating one of the {@link Stream}-returning methods.
+	 */
+	String STREAM_FETCH_SIZE = "1000";
+
+	/**
+	 * Name of the cache backing the {@link ProjectionCache} of
+	 * {@link CustomerRepositoryCustom#findProjectedById(Long, Class)}.
+	 */
+	String PROJECTION_CACHE = "customer-projections";
 
 	/**
 	 * Uses a projection interface to indicate the fields to be returned. As the projection doesn't use any dynamic
@@ -35,54 +56,95 @@ public interface CustomerRepository extends CrudRepository<Customer, Long> {
 	Collection<CustomerProjection> findAllProjectedBy();
 
 	/**
-	 * When a projection is used that contains dynamic properties (i.e. SpEL expressions in an {@link Value} annotation),
-	 * the normal target entity will be loaded but dynamically projected so that the target can be referred to in the
-	 * expression.
+	 * Streaming variant of {@link #findAllProjectedBy()}. The results are read from a forward-only, scrollable cursor
+	 * fetching {@value #STREAM_FETCH_SIZE} rows at a time so that projections are created while iterating instead of
+	 * materializing the entire result upfront. The {@link Stream} must be consumed within a transaction and should be
+	 * closed after use.
 	 * 
 	 * @return
 	 */
-	Collection<CustomerSummary> findAllSummarizedBy();
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	Stream<CustomerProjection> streamAllProjectedBy();
+
+	/**
+	 * Uses a concrete implementation of {@link CustomerProjection} to indicate the fields to be returned. Results are
+	 * created through a constructor expression and don't require a proxy per row.
+	 * 
+	 * @return
+	 */
+	Collection<SimpleCustomerProjection> findAllSimpleProjectedBy();
+
+	/**
+	 * Asynchronous variant of {@link #findAllProjectedBy()} executed on the bounded
+	 * {@value ProjectionConfiguration#PROJECTION_EXECUTOR} so that the calling thread isn't blocked and queries for
+	 * several projections can run concurrently.
+	 * 
+	 * @return
+	 */
+	@Async(ProjectionConfiguration.PROJECTION_EXECUTOR)
+	CompletableFuture<Collection<CustomerProjection>> findAsyncProjectedBy();
+
+	/**
+	 * Asynchronous DTO projection executed on the {@value ProjectionConfiguration#PROJECTION_EXECUTOR}.
+	 * 
+	 * @return
+	 * @see #findAsyncProjectedBy()
+	 */
+	@Async(ProjectionConfiguration.PROJECTION_EXECUTOR)
+	CompletableFuture<Collection<CustomerDto>> findAsyncDtoedBy();
 
 	/**
-	 * Projection interfaces can be used with manually declared queries, too. Make sure you alias the projects matching
-	 * the projection fields.
+	 * When a projection is used that contains dynamic properties (i.e. SpEL expressions in an {@link Value} annotation),
+	 * the normal target entity will be loaded but dynamically projected so that the target can be referred to in the
+	 * expression.
 	 * 
 	 * @return
 	 */
-	@Query("select c.firstname as firstname, c.lastname as lastname from Customer c")
-	Collection<CustomerProjection> findsByProjectedColumns();
+	Collection<CustomerSummary> findAllSummarizedBy();
 
 	/**
-	 * Uses a concrete DTO type to indicate the fields to be returned. This gets translated into a constructor expression
-	 * in the query.
+	 * Streaming variant of {@link #findAllDtoedBy()} reading the results of a constructor expression from a scrollable
+	 * cursor.
 	 * 
 	 * @return
+	 * @see #streamAllProjectedBy()
 	 */
-	Collection<CustomerDto> findAllDtoedBy();
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+	Stream<CustomerDto> streamAllDtoedBy();
 
 	/**
-	 * Passes in the projection type dynamically (either interface or DTO).
+	 * Keyset (seek) pagination for customers with the given firstname. Instead of skipping the rows of previous pages
+	 * through an offset, the query restricts the results to the ones following the last seen identifier, so that reading
+	 * a window deep into the result costs the same as reading the first one. The index on {@code (firstname, id)}
+	 * declared by {@link Customer} serves both the restriction and the ordering.
 	 * 
 	 * @param firstname
-	 * @param projection
+	 * @param lastSeenId the identifier of the last element of the previous window or {@literal null} to read the first
+	 *          window.
+	 * @param size the maximum number of elements to return.
 	 * @return
 	 */
-	<T> Collection<T> findByFirstname(String firstname, Class<T> projection);
+	default Slice<CustomerKeysetProjection> findNextByFirstname(String firstname, Long lastSeenId, int size) {
+		return findByFirstnameAndIdGreaterThanOrderByIdAsc(firstname, lastSeenId == null ? Long.MIN_VALUE : lastSeenId,
+				new PageRequest(0, size));
+	}
 
 	/**
-	 * Projection for a single entity.
+	 * Backs {@link #findNextByFirstname(String, Long, int)}. The given {@link Pageable} must point to the first page as
+	 * the window is determined by {@code id}.
 	 * 
+	 * @param firstname
 	 * @param id
+	 * @param pageable
 	 * @return
 	 */
-	CustomerProjection findProjectedById(Long id);
+	Slice<CustomerKeysetProjection> findByFirstnameAndIdGreaterThanOrderByIdAsc(String firstname, Long id, Pageable pageable);
 
 	/**
-	 * Dynamic projection for a single entity.
+	 * Projection for a single entity.
 	 * 
 	 * @param id
-	 * @param projection
 	 * @return
 	 */
-	<T> T findProjectedById(Long id, Class<T> projection);
+	CustomerProjection findProjectedById(Long id);
 }
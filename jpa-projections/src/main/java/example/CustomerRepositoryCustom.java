@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Projection query methods implemented manually in {@link CustomerRepositoryImpl}.
+ *
+ * @author agent
+ */
+public interface CustomerRepositoryCustom {
+
+	/**
+	 * Projection interfaces can be used with manually declared queries, too. Make sure you alias the projects matching
+	 * the projection fields. The projections read the columns straight from the query's tuples through a
+	 * {@link TupleBackedMap} instead of copying them into a map per row.
+	 * 
+	 * @return
+	 */
+	Collection<CustomerProjection> findsByProjectedColumns();
+
+	/**
+	 * Uses a concrete DTO type to indicate the fields to be returned. The DTO's fields are selected as plain columns and
+	 * the DTOs are created through a constructor {@link java.lang.invoke.MethodHandle} resolved once per DTO type instead
+	 * of a constructor expression instantiating them reflectively.
+	 * 
+	 * @return
+	 */
+	Collection<CustomerDto> findAllDtoedBy();
+
+	/**
+	 * Passes in the projection type dynamically (either interface or DTO). The query is prepared once per projection
+	 * type and cached in the {@link ProjectionQueryCache} instead of being derived on each invocation.
+	 * 
+	 * @param firstname
+	 * @param projection
+	 * @return
+	 */
+	<T> Collection<T> findByFirstname(String firstname, Class<T> projection);
+
+	/**
+	 * Dynamic projection for a single entity. The query is prepared once per projection type and cached in the
+	 * {@link ProjectionQueryCache}. Detached projections, i.e. DTOs declaring final fields only
+	 * and closed projection interfaces backed by a map of the selected columns, are cached per identifier and projection
+	 * type in the {@link ProjectionCache} so that repeated lookups skip both the query and the projection construction,
+	 * see {@link ProjectionQuery#isDetached()}. Entities and open projections refer to the persistence context and are
+	 * always read from the database.
+	 * <p>
+	 * Projections read within a transaction are only cached once it commits and committed updates or deletes of a
+	 * customer evict its entries, including changes flushed by dirty checking. Bulk JPQL or SQL updates bypass the
+	 * eviction and need to evict the affected entries explicitly.
+	 * 
+	 * @param id
+	 * @param projection
+	 * @return
+	 */
+	<T> T findProjectedById(Long id, Class<T> projection);
+
+	/**
+	 * Dynamic projection for multiple entities looked up by their identifiers. The identifiers are split into IN-list
+	 * batches of {@code projections.id-batch-size} elements (500 by default) so that a large number of identifiers
+	 * results in a few queries instead of a query per identifier.
+	 * 
+	 * @param ids must not be {@literal null}.
+	 * @param projection
+	 * @return the projections in the order of the given identifiers, identifiers without a matching entity are skipped.
+	 */
+	<T> List<T> findProjectedByIdIn(Collection<Long> ids, Class<T> projection);
+
+	/**
+	 * Reads the properties of the given closed projection interface for all customers into one array per property,
+	 * e.g. a {@code long[]} for the identifiers and a {@code String[]} for the first names. Rows are scrolled through
+	 * without creating a projection or entity per row, which suits bulk exports feeding aggregation code.
+	 * 
+	 * @param projection must be a closed projection interface exposing basic attributes of {@link Customer} only.
+	 * @return
+	 * @throws IllegalArgumentException if the projection is open or exposes associations or collections, translated into
+	 *           an {@link org.springframework.dao.InvalidDataAccessApiUsageException} by the repository proxy.
+	 */
+	@Transactional(readOnly = true)
+	ProjectionColumns findAllProjectedColumnsBy(Class<?> projection);
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Implementation of {@link CustomerRepositoryCustom} executing dynamic projections through queries prepared once per
+ * projection type.
+ *
+ * @author agent
+ */
+class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+	private final ProjectionQueryCache queryCache;
+	private final ProjectionFactory projectionFactory;
+	private final ProjectionCache projectionCache;
+	private final int idBatchSize;
+
+	@PersistenceContext private EntityManager em;
+
+	public CustomerRepositoryImpl(ProjectionQueryCache queryCache, ProjectionFactory projectionFactory,
+			ProjectionCache projectionCache, @Value("${projections.id-batch-size:500}") int idBatchSize) {
+
+		Assert.isTrue(idBatchSize > 0, "Identifier batch size must be greater than zero!");
+
+		this.queryCache = queryCache;
+		this.projectionFactory = projectionFactory;
+		this.projectionCache = projectionCache;
+		this.idBatchSize = idBatchSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findsByProjectedColumns()
+	 */
+	@Override
+	public Collection<CustomerProjection> findsByProjectedColumns() {
+
+		ProjectionQuery<CustomerProjection> query = queryCache.get("findsByProjectedColumns",
+				CustomerProjection.class, () -> ProjectionQuery.forTupleQuery(CustomerProjection.class,
+						"select c.firstname as firstname, c.lastname as lastname from Customer c", projectionFactory));
+
+		return convert(query, query.createQuery(em).getResultList());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findAllDtoedBy()
+	 */
+	@Override
+	public Collection<CustomerDto> findAllDtoedBy() {
+
+		ProjectionQuery<CustomerDto> query = prepare("findAllDtoedBy", CustomerDto.class, null);
+
+		return convert(query, query.createQuery(em).getResultList());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findByFirstname(java.lang.String, java.lang.Class)
+	 */
+	@Override
+	public <T> Collection<T> findByFirstname(String firstname, Class<T> projection) {
+
+		ProjectionQuery<T> query = prepare("findByFirstname", projection, "e.firstname = :firstname");
+
+		return convert(query, query.createQuery(em).setParameter("firstname", firstname).getResultList());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findProjectedById(java.lang.Long, java.lang.Class)
+	 */
+	@Override
+	public <T> T findProjectedById(Long id, Class<T> projection) {
+
+		ProjectionQuery<T> query = prepare("findProjectedById", projection, "e.id = :id");
+
+		if (!query.isDetached()) {
+			return findOne(query, id);
+		}
+
+		T cached = projectionCache.get(id, projection);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		// Stamp before reading so that a change committed while querying prevents caching the stale result
+		long stamp = projectionCache.stamp(id);
+		T result = findOne(query, id);
+
+		if (result != null) {
+			projectionCache.put(id, projection, result, stamp);
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findProjectedByIdIn(java.util.Collection, java.lang.Class)
+	 */
+	@Override
+	public <T> List<T> findProjectedByIdIn(Collection<Long> ids, Class<T> projection) {
+
+		Assert.notNull(ids, "Identifiers must not be null!");
+
+		ProjectionQuery<T> query = queryCache.get("findProjectedByIdIn", projection,
+				() -> ProjectionQuery.of(projection, Customer.class, "e.id in :ids", "id", projectionFactory));
+
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		Map<Object, T> projections = new HashMap<>(distinctIds.size());
+
+		for (int i = 0; i < distinctIds.size(); i += idBatchSize) {
+
+			List<Long> batch = distinctIds.subList(i, Math.min(i + idBatchSize, distinctIds.size()));
+
+			for (Object row : query.group(query.createQuery(em).setParameter("ids", batch).getResultList())) {
+				projections.put(query.getKey(row), query.convert(row));
+			}
+		}
+
+		List<T> result = new ArrayList<>(ids.size());
+
+		for (Long id : ids) {
+
+			T projected = projections.get(id);
+
+			if (projected != null) {
+				result.add(projected);
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.CustomerRepositoryCustom#findAllProjectedColumnsBy(java.lang.Class)
+	 */
+	@Override
+	public ProjectionColumns findAllProjectedColumnsBy(Class<?> projection) {
+
+		ProjectionInformation information = projectionFactory.getProjectionInformation(projection);
+
+		Assert.isTrue(projection.isInterface() && information.isClosed(),
+				"Columnar projections require a closed projection interface!");
+
+		EntityType<Customer> entity = em.getMetamodel().entity(Customer.class);
+		List<String> properties = new ArrayList<>();
+		List<Class<?>> types = new ArrayList<>();
+		List<String> columns = new ArrayList<>();
+
+		information.getInputProperties().forEach(descriptor -> {
+
+			Attribute<? super Customer, ?> attribute = entity.getAttribute(descriptor.getName());
+
+			Assert.isTrue(attribute.getPersistentAttributeType() == PersistentAttributeType.BASIC,
+					String.format("Columnar projections only support basic attributes but %s is %s!", attribute.getName(),
+							attribute.getPersistentAttributeType()));
+
+			properties.add(descriptor.getName());
+			types.add(attribute.getJavaType());
+			columns.add("e." + descriptor.getName());
+		});
+
+		ProjectionColumns result = new ProjectionColumns(properties, types);
+		String jpql = "select " + StringUtils.collectionToDelimitedString(columns, ", ") + " from Customer e";
+
+		ScrollableResults rows = em.unwrap(Session.class).createQuery(jpql) //
+				.setReadOnly(true) //
+				.setFetchSize(Integer.parseInt(CustomerRepository.STREAM_FETCH_SIZE)) //
+				.scroll(ScrollMode.FORWARD_ONLY);
+
+		try {
+			while (rows.next()) {
+				result.add(rows.get());
+			}
+		} finally {
+			rows.close();
+		}
+
+		return result.trim();
+	}
+
+	private <T> T findOne(ProjectionQuery<T> query, Long id) {
+
+		List<T> result = convert(query, query.createQuery(em).setParameter("id", id).getResultList());
+
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	private <T> ProjectionQuery<T> prepare(String queryName, Class<T> projection, String predicate) {
+		return queryCache.get(queryName, projection,
+				() -> ProjectionQuery.of(projection, Customer.class, predicate, projectionFactory));
+	}
+
+	private static <T> List<T> convert(ProjectionQuery<T> query, List<?> rows) {
+		return query.group(rows).stream().map(query::convert).collect(Collectors.toList());
+	}
+}
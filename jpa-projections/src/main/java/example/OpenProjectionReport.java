@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.ManagedType;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.OpPlus;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inspects the open projections returned by repository query methods and reports {@link Value} expressions that only
+ * concatenate literals and simple properties of the projection target (e.g. {@code target.firstname}). Such
+ * expressions don't need the entity to be loaded, their properties could rather be pushed down into the select list
+ * of the query by turning the projection into a closed one.
+ *
+ * @author agent
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OpenProjectionReport implements SmartInitializingSingleton {
+
+	private static final String TARGET = "target";
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+	private final ListableBeanFactory beanFactory;
+	private final EntityManagerFactory entityManagerFactory;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.SmartInitializingSingleton#afterSingletonsInstantiated()
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+
+		Repositories repositories = new Repositories(beanFactory);
+
+		for (Class<?> domainType : repositories) {
+
+			RepositoryInformation information = repositories.getRepositoryInformationFor(domainType);
+			Set<Class<?>> projectionTypes = new LinkedHashSet<>();
+
+			for (Method method : information.getQueryMethods()) {
+
+				Class<?> returnedType = information.getReturnedDomainClass(method);
+
+				if (returnedType.isInterface()) {
+					projectionTypes.add(returnedType);
+				}
+			}
+
+			for (Class<?> projectionType : projectionTypes) {
+				for (PushdownCandidate candidate : getPushdownCandidates(projectionType, domainType)) {
+					log.info("{} only uses simple properties {} of {} and could be pushed down into the select list.",
+							candidate.getMethod(), candidate.getProperties(), domainType.getSimpleName());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link Value}-annotated methods of the given projection type whose expressions only refer to simple
+	 * properties of the given domain type.
+	 *
+	 * @param projectionType must not be {@literal null}.
+	 * @param domainType must be a managed JPA type.
+	 * @return
+	 */
+	public List<PushdownCandidate> getPushdownCandidates(Class<?> projectionType, Class<?> domainType) {
+
+		ManagedType<?> managedType = entityManagerFactory.getMetamodel().managedType(domainType);
+		List<PushdownCandidate> candidates = new ArrayList<>();
+
+		for (Method method : projectionType.getMethods()) {
+
+			Value value = AnnotationUtils.findAnnotation(method, Value.class);
+
+			if (value == null) {
+				continue;
+			}
+
+			Set<String> properties = new LinkedHashSet<>();
+			Expression expression = parser.parseExpression(value.value(), new TemplateParserContext());
+
+			if (collectSimpleProperties(expression, managedType, properties)) {
+				candidates.add(new PushdownCandidate(method, value.value(), new ArrayList<>(properties)));
+			}
+		}
+
+		return Collections.unmodifiableList(candidates);
+	}
+
+	private static boolean collectSimpleProperties(Expression expression, ManagedType<?> type, Set<String> properties) {
+
+		if (expression instanceof LiteralExpression) {
+			return true;
+		}
+
+		if (expression instanceof CompositeStringExpression) {
+
+			for (Expression part : ((CompositeStringExpression) expression).getExpressions()) {
+				if (!collectSimpleProperties(part, type, properties)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		return expression instanceof SpelExpression
+				&& collectSimpleProperties(((SpelExpression) expression).getAST(), type, properties);
+	}
+
+	private static boolean collectSimpleProperties(SpelNode node, ManagedType<?> type, Set<String> properties) {
+
+		if (node instanceof Literal) {
+			return true;
+		}
+
+		if (node instanceof OpPlus) {
+
+			for (int i = 0; i < node.getChildCount(); i++) {
+				if (!collectSimpleProperties(node.getChild(i), type, properties)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		if (!(node instanceof CompoundExpression) || node.getChildCount() != 2) {
+			return false;
+		}
+
+		SpelNode root = node.getChild(0);
+		SpelNode property = node.getChild(1);
+
+		if (!(root instanceof PropertyOrFieldReference) || !TARGET.equals(((PropertyOrFieldReference) root).getName())
+				|| !(property instanceof PropertyOrFieldReference)) {
+			return false;
+		}
+
+		String name = ((PropertyOrFieldReference) property).getName();
+
+		if (!isBasicAttribute(type, name)) {
+			return false;
+		}
+
+		properties.add(name);
+
+		return true;
+	}
+
+	private static boolean isBasicAttribute(ManagedType<?> type, String name) {
+
+		for (Attribute<?, ?> attribute : type.getAttributes()) {
+			if (attribute.getName().equals(name)) {
+				return attribute.getPersistentAttributeType() == PersistentAttributeType.BASIC;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * A projection method whose expression can be pushed down into the query.
+	 */
+	@lombok.Value
+	public static class PushdownCandidate {
+
+		Method method;
+		String expression;
+		List<String> properties;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.Serializable;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.repository.query.EvaluationContextProvider;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+
+/**
+ * {@link JpaRepositoryFactoryBean} that resolves all query methods with a {@link CompiledSpelProjectionFactory} instead
+ * of the default projection factory so that open projections share parsed and compiled SpEL expressions.
+ *
+ * @author agent
+ */
+public class ProjectionAwareJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable>
+		extends JpaRepositoryFactoryBean<T, S, ID> {
+
+	private final CompiledSpelProjectionFactory projectionFactory = new CompiledSpelProjectionFactory();
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport#setBeanClassLoader(java.lang.ClassLoader)
+	 */
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+
+		super.setBeanClassLoader(classLoader);
+
+		this.projectionFactory.setBeanClassLoader(classLoader);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+
+		super.setBeanFactory(beanFactory);
+
+		this.projectionFactory.setBeanFactory(beanFactory);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean#createRepositoryFactory(javax.persistence.EntityManager)
+	 */
+	@Override
+	protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+
+		return new JpaRepositoryFactory(entityManager) {
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactory#getQueryLookupStrategy(org.springframework.data.repository.query.QueryLookupStrategy.Key, org.springframework.data.repository.query.EvaluationContextProvider)
+			 */
+			@Override
+			protected QueryLookupStrategy getQueryLookupStrategy(Key key,
+					EvaluationContextProvider evaluationContextProvider) {
+
+				QueryLookupStrategy delegate = super.getQueryLookupStrategy(key, evaluationContextProvider);
+
+				return (method, metadata, factory, namedQueries) -> delegate.resolveQuery(method, metadata, projectionFactory,
+						namedQueries);
+			}
+		};
+	}
+}
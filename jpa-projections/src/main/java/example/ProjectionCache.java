@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Cache of detached projections (see {@link ProjectionQuery#isDetached()}) keyed by the identifier of the projected
+ * entity and the projection type.
+ * <p>
+ * Readers take a {@link #stamp(Object)} before running their query and hand it to {@link #put(Object, Class, Object,
+ * long)}, which only stores the projection if no change to an entity of the same stamp stripe committed in between.
+ * That way a reader loading the old state can't cache it after a concurrent writer's eviction. Puts issued within a
+ * transaction are deferred until it commits so that uncommitted state never gets cached.
+ * <p>
+ * Changes are picked up through Hibernate's post-commit update and delete events, which also cover changes flushed by
+ * dirty checking. Bulk JPQL or SQL updates bypass these events and have to call {@link #evict(Object)} or
+ * {@link #clear()} themselves. The expiry configured for the backing {@link Cache} bounds the staleness in that case.
+ *
+ * @author agent
+ */
+@SuppressWarnings("serial")
+public class ProjectionCache implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private static final int STRIPES = 64;
+
+	private final transient Cache cache;
+	private final Class<?> domainType;
+	private final long[] stamps = new long[STRIPES];
+	private final Object[] locks = new Object[STRIPES];
+	private final Set<Class<?>> projectionTypes = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a new {@link ProjectionCache} for projections of the given domain type.
+	 *
+	 * @param cache must not be {@literal null}.
+	 * @param domainType must not be {@literal null}.
+	 */
+	public ProjectionCache(Cache cache, Class<?> domainType) {
+
+		Assert.notNull(cache, "Cache must not be null!");
+		Assert.notNull(domainType, "Domain type must not be null!");
+
+		this.cache = cache;
+		this.domainType = domainType;
+
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * Returns the cached projection of the given type for the entity with the given identifier.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return the cached projection or {@literal null} if none is cached.
+	 */
+	public <T> T get(Object id, Class<T> type) {
+		return cache.get(new SimpleKey(id, type), type);
+	}
+
+	/**
+	 * Returns the current stamp for the entity with the given identifier. Must be obtained before reading the state to
+	 * be cached.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @return
+	 */
+	public long stamp(Object id) {
+
+		int stripe = stripe(id);
+
+		synchronized (locks[stripe]) {
+			return stamps[stripe];
+		}
+	}
+
+	/**
+	 * Caches the given projection unless the entity with the given identifier (or one sharing its stripe) changed since
+	 * the given stamp was obtained. Within a transaction, the put is deferred until the transaction commits.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param projection must not be {@literal null}.
+	 * @param stamp the stamp obtained through {@link #stamp(Object)} before reading the projection.
+	 */
+	public void put(Object id, Class<?> type, Object projection, long stamp) {
+
+		projectionTypes.add(type);
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			putIfUnchanged(id, type, projection, stamp);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.transaction.support.TransactionSynchronizationAdapter#afterCommit()
+			 */
+			@Override
+			public void afterCommit() {
+				putIfUnchanged(id, type, projection, stamp);
+			}
+		});
+	}
+
+	/**
+	 * Evicts all projections of the entity with the given identifier and invalidates the stamps handed out for it.
+	 *
+	 * @param id must not be {@literal null}.
+	 */
+	public void evict(Object id) {
+
+		int stripe = stripe(id);
+
+		synchronized (locks[stripe]) {
+
+			stamps[stripe]++;
+			projectionTypes.forEach(type -> cache.evict(new SimpleKey(id, type)));
+		}
+	}
+
+	/**
+	 * Evicts all projections and invalidates all stamps handed out so far.
+	 */
+	public void clear() {
+
+		for (int i = 0; i < STRIPES; i++) {
+			synchronized (locks[i]) {
+				stamps[i]++;
+			}
+		}
+
+		cache.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.hibernate.event.spi.PostUpdateEventListener#onPostUpdate(org.hibernate.event.spi.PostUpdateEvent)
+	 */
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+
+		if (requiresPostCommitHanding(event.getPersister())) {
+			evict(event.getId());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.hibernate.event.spi.PostCommitUpdateEventListener#onPostUpdateCommitFailed(org.hibernate.event.spi.PostUpdateEvent)
+	 */
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.hibernate.event.spi.PostDeleteEventListener#onPostDelete(org.hibernate.event.spi.PostDeleteEvent)
+	 */
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+
+		if (requiresPostCommitHanding(event.getPersister())) {
+			evict(event.getId());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.hibernate.event.spi.PostCommitDeleteEventListener#onPostDeleteCommitFailed(org.hibernate.event.spi.PostDeleteEvent)
+	 */
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.hibernate.event.spi.PostActionEventListener#requiresPostCommitHanding(org.hibernate.persister.entity.EntityPersister)
+	 */
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return domainType.isAssignableFrom(persister.getMappedClass());
+	}
+
+	private void putIfUnchanged(Object id, Class<?> type, Object projection, long stamp) {
+
+		int stripe = stripe(id);
+
+		synchronized (locks[stripe]) {
+			if (stamps[stripe] == stamp) {
+				cache.put(new SimpleKey(id, type), projection);
+			}
+		}
+	}
+
+	private static int stripe(Object id) {
+		return (id.hashCode() & Integer.MAX_VALUE) % STRIPES;
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Column-oriented result of a projection holding one array per projected property instead of one object per row.
+ * {@link Long}, {@link Integer} and {@link Double} properties are stored in primitive arrays with {@literal null}
+ * values tracked separately, see {@link #isNull(String, int)}. All other properties are stored in arrays of their
+ * type, e.g. {@code String[]}.
+ *
+ * @author agent
+ */
+public class ProjectionColumns {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+	private int size;
+
+	/**
+	 * Creates a new, empty {@link ProjectionColumns} for the given properties and their types.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @param types must not be {@literal null} and match the number of properties.
+	 */
+	ProjectionColumns(List<String> properties, List<Class<?>> types) {
+
+		Assert.isTrue(properties.size() == types.size(), "Number of properties and types must match!");
+
+		for (int i = 0; i < properties.size(); i++) {
+			columns.put(properties.get(i), Column.of(ClassUtils.resolvePrimitiveIfNecessary(types.get(i))));
+		}
+	}
+
+	/**
+	 * Appends a row holding one value per property in the order the properties were given.
+	 *
+	 * @param values must not be {@literal null}.
+	 */
+	void add(Object[] values) {
+
+		int i = 0;
+
+		for (Column column : columns.values()) {
+			column.set(size, values[i++]);
+		}
+
+		size++;
+	}
+
+	/**
+	 * Trims all columns to the number of rows added.
+	 *
+	 * @return
+	 */
+	ProjectionColumns trim() {
+
+		columns.values().forEach(column -> column.trim(size));
+		return this;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the names of the projected properties in select order.
+	 *
+	 * @return
+	 */
+	public List<String> getProperties() {
+		return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+	}
+
+	/**
+	 * Returns the array holding the values of the given property.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @return
+	 */
+	public Object getColumn(String property) {
+		return getRequiredColumn(property).values;
+	}
+
+	/**
+	 * Returns the values of the given {@link Long} property.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @return
+	 */
+	public long[] getLongs(String property) {
+		return getColumn(property, long[].class);
+	}
+
+	/**
+	 * Returns the values of the given {@link Integer} property.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @return
+	 */
+	public int[] getInts(String property) {
+		return getColumn(property, int[].class);
+	}
+
+	/**
+	 * Returns the values of the given {@link Double} property.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @return
+	 */
+	public double[] getDoubles(String property) {
+		return getColumn(property, double[].class);
+	}
+
+	/**
+	 * Returns the values of the given {@link String} property.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @return
+	 */
+	public String[] getStrings(String property) {
+		return getColumn(property, String[].class);
+	}
+
+	/**
+	 * Returns whether the value of the given property is {@literal null} in the given row.
+	 *
+	 * @param property must not be {@literal null}.
+	 * @param row
+	 * @return
+	 */
+	public boolean isNull(String property, int row) {
+
+		Column column = getRequiredColumn(property);
+
+		return column.nulls == null ? ((Object[]) column.values)[row] == null : column.nulls.get(row);
+	}
+
+	private <T> T getColumn(String property, Class<T> type) {
+
+		Object values = getColumn(property);
+
+		Assert.isInstanceOf(type, values, String.format("Property %s is not stored as %s!", property,
+				type.getSimpleName()));
+
+		return type.cast(values);
+	}
+
+	private Column getRequiredColumn(String property) {
+
+		Column column = columns.get(property);
+
+		Assert.notNull(column, String.format("No column for property %s!", property));
+
+		return column;
+	}
+
+	/**
+	 * A growable array of values of a single property.
+	 */
+	private static class Column {
+
+		private final Class<?> type;
+		private final BitSet nulls;
+		private Object values;
+
+		private Column(Class<?> type, Object values) {
+
+			this.type = type;
+			this.values = values;
+			this.nulls = values instanceof Object[] ? null : new BitSet();
+		}
+
+		static Column of(Class<?> type) {
+
+			if (Long.class.equals(type)) {
+				return new Column(type, new long[INITIAL_CAPACITY]);
+			}
+
+			if (Integer.class.equals(type)) {
+				return new Column(type, new int[INITIAL_CAPACITY]);
+			}
+
+			if (Double.class.equals(type)) {
+				return new Column(type, new double[INITIAL_CAPACITY]);
+			}
+
+			return new Column(type, Array.newInstance(type, INITIAL_CAPACITY));
+		}
+
+		void set(int row, Object value) {
+
+			if (row == Array.getLength(values)) {
+				values = copy(row * 2);
+			}
+
+			if (nulls == null) {
+				((Object[]) values)[row] = value;
+			} else if (value == null) {
+				nulls.set(row);
+			} else if (Long.class.equals(type)) {
+				((long[]) values)[row] = ((Number) value).longValue();
+			} else if (Integer.class.equals(type)) {
+				((int[]) values)[row] = ((Number) value).intValue();
+			} else {
+				((double[]) values)[row] = ((Number) value).doubleValue();
+			}
+		}
+
+		void trim(int size) {
+
+			if (size != Array.getLength(values)) {
+				values = copy(size);
+			}
+		}
+
+		private Object copy(int length) {
+
+			if (values instanceof long[]) {
+				return Arrays.copyOf((long[]) values, length);
+			}
+
+			if (values instanceof int[]) {
+				return Arrays.copyOf((int[]) values, length);
+			}
+
+			if (values instanceof double[]) {
+				return Arrays.copyOf((double[]) values, length);
+			}
+
+			return Arrays.copyOf((Object[]) values, length);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configures the repositories to create projections through a {@link CompiledSpelProjectionFactory}, sets up the
+ * {@link ProjectionQueryCache} for dynamic projections, the {@link ProjectionCache} and the executor for
+ * asynchronous projection queries and reports open projections that could be turned into closed ones on startup.
+ *
+ * @author agent
+ */
+@Configuration
+@EnableAsync
+@EnableJpaRepositories(repositoryFactoryBeanClass = ProjectionAwareJpaRepositoryFactoryBean.class)
+public class ProjectionConfiguration {
+
+	/**
+	 * Name of the executor running asynchronous projection queries.
+	 */
+	public static final String PROJECTION_EXECUTOR = "projectionExecutor";
+
+	@Bean
+	public CompiledSpelProjectionFactory projectionFactory() {
+		return new CompiledSpelProjectionFactory();
+	}
+
+	/**
+	 * Caffeine backed {@link CacheManager} for the {@value CustomerRepository#PROJECTION_CACHE} cache. Entries expire
+	 * by default to bound the staleness caused by changes bypassing the {@link ProjectionCache}'s eviction.
+	 */
+	@Bean
+	public CacheManager cacheManager(
+			@Value("${projections.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(CustomerRepository.PROJECTION_CACHE);
+		cacheManager.setCacheSpecification(spec);
+
+		return cacheManager;
+	}
+
+	/**
+	 * {@link ProjectionCache} for {@link Customer} projections registered for Hibernate's post-commit update and delete
+	 * events so that committed changes evict the affected entries.
+	 */
+	@Bean
+	public ProjectionCache projectionCache(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+
+		ProjectionCache projectionCache = new ProjectionCache(cacheManager.getCache(CustomerRepository.PROJECTION_CACHE),
+				Customer.class);
+
+		EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImpl.class).getServiceRegistry()
+				.getService(EventListenerRegistry.class);
+
+		listeners.appendListeners(EventType.POST_COMMIT_UPDATE, projectionCache);
+		listeners.appendListeners(EventType.POST_COMMIT_DELETE, projectionCache);
+
+		return projectionCache;
+	}
+
+	@Bean
+	public ProjectionQueryCache projectionQueryCache(@Value("${projections.query-cache.max-size:64}") int maxSize) {
+		return new ProjectionQueryCache(maxSize);
+	}
+
+	/**
+	 * Bounded executor for asynchronous projection queries. Tasks exceeding the queue capacity are rejected instead of
+	 * piling up.
+	 */
+	@Bean(name = PROJECTION_EXECUTOR)
+	public ThreadPoolTaskExecutor projectionExecutor(@Value("${projections.executor.pool-size:4}") int poolSize,
+			@Value("${projections.executor.queue-capacity:100}") int queueCapacity) {
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("projection-");
+
+		return executor;
+	}
+
+	@Bean
+	public ProjectionMetrics projectionMetrics(ProjectionQueryCache projectionQueryCache,
+			ThreadPoolTaskExecutor projectionExecutor) {
+		return new ProjectionMetrics(projectionQueryCache, projectionExecutor);
+	}
+
+	@Bean
+	public OpenProjectionReport openProjectionReport(ListableBeanFactory beanFactory,
+			EntityManagerFactory entityManagerFactory) {
+		return new OpenProjectionReport(beanFactory, entityManagerFactory);
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link PublicMetrics} exposing the hit and miss counts of the {@link ProjectionQueryCache} and the utilization of
+ * the executor running asynchronous projection queries.
+ *
+ * @author agent
+ */
+@RequiredArgsConstructor
+public class ProjectionMetrics implements PublicMetrics {
+
+	private final ProjectionQueryCache queryCache;
+	private final ThreadPoolTaskExecutor executor;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.boot.actuate.endpoint.PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		List<Metric<?>> metrics = new ArrayList<>();
+
+		metrics.add(new Metric<Long>("projections.query-cache.hits", queryCache.getHitCount()));
+		metrics.add(new Metric<Long>("projections.query-cache.misses", queryCache.getMissCount()));
+		metrics.add(new Metric<Integer>("projections.query-cache.size", queryCache.size()));
+
+		ThreadPoolExecutor threadPool = executor.getThreadPoolExecutor();
+
+		metrics.add(new Metric<Integer>("projections.executor.queue.depth", threadPool.getQueue().size()));
+		metrics.add(new Metric<Integer>("projections.executor.active", threadPool.getActiveCount()));
+		metrics.add(new Metric<Integer>("projections.executor.pool.size", threadPool.getPoolSize()));
+
+		return metrics;
+	}
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.Id;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PreferredConstructor.Parameter;
+import org.springframework.data.mapping.model.PreferredConstructorDiscoverer;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A JPQL query prepared for a particular projection type along with the converter turning its result rows into
+ * instances of that type. Closed projection interfaces and DTOs only select the properties they need, other types
+ * read the entity. Properties of closed projection interfaces returning nested projection interfaces (or collections of
+ * them) are read through a left join selecting the nested properties only, see {@link #group(List)}.
+ *
+ * @author agent
+ */
+public class ProjectionQuery<T> {
+
+	private static final String ALIAS = "e";
+	private static final String KEY_ALIAS = "key_";
+
+	private final String jpql;
+	private final Class<?> rowType;
+	private final Function<Object, T> converter;
+	private final Function<Object, Object> keyExtractor;
+	private final Function<List<?>, List<?>> grouper;
+	private final boolean detached;
+
+	private ProjectionQuery(String jpql, Class<?> rowType, Function<Object, T> converter,
+			Function<Object, Object> keyExtractor, boolean detached) {
+		this(jpql, rowType, converter, keyExtractor, rows -> rows, detached);
+	}
+
+	private ProjectionQuery(String jpql, Class<?> rowType, Function<Object, T> converter,
+			Function<Object, Object> keyExtractor, Function<List<?>, List<?>> grouper, boolean detached) {
+
+		this.jpql = jpql;
+		this.rowType = rowType;
+		this.converter = converter;
+		this.keyExtractor = keyExtractor;
+		this.grouper = grouper;
+		this.detached = detached;
+	}
+
+	/**
+	 * Prepares a query selecting the given projection type from the given domain type.
+	 *
+	 * @param projectionType must not be {@literal null}.
+	 * @param domainType must not be {@literal null}.
+	 * @param predicate the where clause referring to the domain type through {@code e}, can be {@literal null}.
+	 * @param factory the {@link ProjectionFactory} to create projection interfaces.
+	 * @return
+	 */
+	public static <T> ProjectionQuery<T> of(Class<T> projectionType, Class<?> domainType, String predicate,
+			ProjectionFactory factory) {
+		return of(projectionType, domainType, predicate, null, factory);
+	}
+
+	/**
+	 * Prepares a query selecting the given projection type from the given domain type. The given key property is read
+	 * along with the projection regardless of whether the projection exposes it, see {@link #getKey(Object)}.
+	 *
+	 * @param projectionType must not be {@literal null}.
+	 * @param domainType must not be {@literal null}.
+	 * @param predicate the where clause referring to the domain type through {@code e}, can be {@literal null}.
+	 * @param keyProperty the property of the domain type to identify result rows, can be {@literal null}.
+	 * @param factory the {@link ProjectionFactory} to create projection interfaces.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ProjectionQuery<T> of(Class<T> projectionType, Class<?> domainType, String predicate,
+			String keyProperty, ProjectionFactory factory) {
+
+		String from = String.format(" from %s %s", domainType.getSimpleName(), ALIAS)
+				+ (predicate == null ? "" : " where " + predicate);
+		Function<Object, Object> entityKeyExtractor = keyProperty == null ? null
+				: row -> PropertyAccessorFactory.forBeanPropertyAccess(row).getPropertyValue(keyProperty);
+		Function<Object, Object> tupleKeyExtractor = keyProperty == null ? null : row -> ((Tuple) row).get(0);
+
+		if (projectionType.isAssignableFrom(domainType)) {
+			return new ProjectionQuery<>("select " + ALIAS + from, domainType, row -> (T) row, entityKeyExtractor, false);
+		}
+
+		if (projectionType.isInterface()) {
+
+			ProjectionInformation information = factory.getProjectionInformation(projectionType);
+
+			if (!information.isClosed()) {
+				return new ProjectionQuery<>("select " + ALIAS + from, domainType,
+						row -> factory.createProjection(projectionType, row), entityKeyExtractor, false);
+			}
+
+			List<String> properties = new ArrayList<>();
+			Map<String, Class<?>> nestedProjections = new LinkedHashMap<>();
+
+			for (PropertyDescriptor descriptor : information.getInputProperties()) {
+
+				Class<?> nestedProjection = nestedProjectionType(descriptor);
+
+				if (nestedProjection == null) {
+					properties.add(descriptor.getName());
+				} else {
+					nestedProjections.put(descriptor.getName(), nestedProjection);
+				}
+			}
+
+			if (!nestedProjections.isEmpty()) {
+				return joined(projectionType, domainType, predicate, properties, nestedProjections, keyProperty, factory);
+			}
+
+			Map<String, Integer> index = TupleBackedMap.index(aliases(properties, keyProperty));
+
+			return new ProjectionQuery<>(selectList(properties, keyProperty) + from, Tuple.class,
+					row -> factory.createProjection(projectionType, new TupleBackedMap(index, (Tuple) row)), tupleKeyExtractor,
+					true);
+		}
+
+		PreferredConstructor<T, ?> constructor = new PreferredConstructorDiscoverer<>(projectionType).getConstructor();
+		List<String> properties = new ArrayList<>();
+
+		for (Parameter<Object, ?> parameter : constructor.getParameters()) {
+			properties.add(parameter.getName());
+		}
+
+		Function<Object[], T> instantiator = instantiator(constructor.getConstructor());
+		int offset = keyProperty == null ? 0 : 1;
+		int count = properties.size();
+
+		return new ProjectionQuery<>(selectList(properties, keyProperty) + from, Tuple.class,
+				row -> instantiator.apply(toArguments((Tuple) row, offset, count)), tupleKeyExtractor,
+				isImmutableValueType(projectionType));
+	}
+
+	/**
+	 * Prepares the given manually defined JPQL query returning {@link Tuple}s to be projected into the given interface.
+	 * The select list needs to alias the columns matching the projection properties.
+	 *
+	 * @param projectionType must be an interface.
+	 * @param jpql must not be {@literal null}.
+	 * @param factory the {@link ProjectionFactory} to create projection interfaces.
+	 * @return
+	 */
+	public static <T> ProjectionQuery<T> forTupleQuery(Class<T> projectionType, String jpql, ProjectionFactory factory) {
+
+		Assert.isTrue(projectionType.isInterface(), "Projection type must be an interface!");
+
+		AtomicReference<Map<String, Integer>> index = new AtomicReference<>();
+
+		return new ProjectionQuery<>(jpql, Tuple.class, row -> {
+
+			Tuple tuple = (Tuple) row;
+			Map<String, Integer> columns = index.get();
+
+			if (columns == null) {
+
+				List<String> aliases = new ArrayList<>();
+				tuple.getElements().forEach(element -> aliases.add(element.getAlias()));
+
+				columns = TupleBackedMap.index(aliases);
+				index.set(columns);
+			}
+
+			return factory.createProjection(projectionType, new TupleBackedMap(columns, tuple));
+		}, null, factory.getProjectionInformation(projectionType).isClosed());
+	}
+
+	/**
+	 * Returns the JPQL query.
+	 *
+	 * @return
+	 */
+	public String getJpql() {
+		return jpql;
+	}
+
+	/**
+	 * Returns whether the projections created by this query are immutable snapshots of the selected columns that don't
+	 * refer to the persistence context: closed projection interfaces without nested projections backed by a
+	 * {@link TupleBackedMap} and DTOs declaring final fields only. Entities, open projections and nested projections
+	 * are not detached.
+	 *
+	 * @return
+	 */
+	public boolean isDetached() {
+		return detached;
+	}
+
+	/**
+	 * Creates a new {@link TypedQuery} for the given {@link EntityManager}. Parameters still need to be bound.
+	 *
+	 * @param entityManager must not be {@literal null}.
+	 * @return
+	 */
+	public TypedQuery<?> createQuery(EntityManager entityManager) {
+		return entityManager.createQuery(jpql, rowType);
+	}
+
+	/**
+	 * Groups the result rows of the query created by {@link #createQuery(EntityManager)} into one row per domain object.
+	 * Queries joining nested projections return one row per associated object, all other queries return their result
+	 * as is. Must be applied to the complete result for a set of domain objects before calling {@link #convert(Object)}
+	 * or {@link #getKey(Object)}.
+	 *
+	 * @param rows must not be {@literal null}.
+	 * @return
+	 */
+	public List<?> group(List<?> rows) {
+		return grouper.apply(rows);
+	}
+
+	/**
+	 * Converts a result row of the query created by {@link #createQuery(EntityManager)} and passed through
+	 * {@link #group(List)} into the projection type.
+	 *
+	 * @param row must not be {@literal null}.
+	 * @return
+	 */
+	public T convert(Object row) {
+		return converter.apply(row);
+	}
+
+	/**
+	 * Returns the value of the key property for a result row of the query created by
+	 * {@link #createQuery(EntityManager)}.
+	 *
+	 * @param row must not be {@literal null}.
+	 * @return
+	 * @throws IllegalStateException if the query was not prepared with a key property.
+	 */
+	public Object getKey(Object row) {
+
+		if (keyExtractor == null) {
+			throw new IllegalStateException(String.format("Query %s was not prepared with a key property!", jpql));
+		}
+
+		return keyExtractor.apply(row);
+	}
+
+	/**
+	 * Prepares a query for a closed projection interface with nested projections. The root's key is selected first to
+	 * group the joined rows, each nested projection selects the key of the associated entity followed by its properties.
+	 */
+	private static <T> ProjectionQuery<T> joined(Class<T> projectionType, Class<?> domainType, String predicate,
+			List<String> properties, Map<String, Class<?>> nestedProjections, String keyProperty,
+			ProjectionFactory factory) {
+
+		List<String> columns = new ArrayList<>();
+		List<String> aliases = new ArrayList<>();
+		StringBuilder from = new StringBuilder(String.format(" from %s %s", domainType.getSimpleName(), ALIAS));
+
+		column(columns, aliases, ALIAS, keyProperty == null ? identifierProperty(domainType) : keyProperty, KEY_ALIAS);
+		properties.forEach(property -> column(columns, aliases, ALIAS, property, property));
+
+		int rootColumns = aliases.size();
+		List<NestedProjection> nested = new ArrayList<>();
+
+		for (Map.Entry<String, Class<?>> entry : nestedProjections.entrySet()) {
+
+			String property = entry.getKey();
+			String joinAlias = property + "_";
+			Field field = ReflectionUtils.findField(domainType, property);
+
+			Assert.notNull(field, String.format("No property %s found on %s!", property, domainType.getName()));
+
+			ResolvableType fieldType = ResolvableType.forField(field);
+			boolean collection = Collection.class.isAssignableFrom(fieldType.resolve());
+			Class<?> associationType = collection ? fieldType.asCollection().resolveGeneric(0) : fieldType.resolve();
+
+			from.append(String.format(" left join %s.%s %s", ALIAS, property, joinAlias));
+
+			int keyPosition = aliases.size();
+			Map<String, Integer> index = new HashMap<>();
+
+			column(columns, aliases, joinAlias, identifierProperty(associationType), joinAlias + KEY_ALIAS);
+
+			for (PropertyDescriptor descriptor : factory.getProjectionInformation(entry.getValue()).getInputProperties()) {
+
+				index.put(descriptor.getName(), aliases.size());
+				column(columns, aliases, joinAlias, descriptor.getName(), joinAlias + descriptor.getName());
+			}
+
+			nested.add(new NestedProjection(property, collection, keyPosition, index));
+		}
+
+		Map<String, Integer> rootIndex = TupleBackedMap.index(aliases.subList(0, rootColumns));
+		String jpql = "select " + StringUtils.collectionToDelimitedString(columns, ", ") + from
+				+ (predicate == null ? "" : " where " + predicate);
+
+		return new ProjectionQuery<>(jpql, Tuple.class, row -> factory.createProjection(projectionType, row),
+				keyProperty == null ? null : row -> ((Map<?, ?>) row).get(KEY_ALIAS),
+				rows -> groupByKey(rows, rootIndex, nested), false);
+	}
+
+	private static List<?> groupByKey(List<?> rows, Map<String, Integer> rootIndex, List<NestedProjection> nested) {
+
+		Map<Object, Tuple> roots = new LinkedHashMap<>();
+		Map<Object, Map<String, Map<Object, Object>>> associations = new HashMap<>();
+
+		for (Object row : rows) {
+
+			Tuple tuple = (Tuple) row;
+			Object key = tuple.get(0);
+
+			roots.putIfAbsent(key, tuple);
+
+			Map<String, Map<Object, Object>> values = associations.computeIfAbsent(key, it -> new HashMap<>());
+
+			for (NestedProjection projection : nested) {
+
+				Map<Object, Object> associated = values.computeIfAbsent(projection.property, it -> new LinkedHashMap<>());
+				Object associationKey = tuple.get(projection.keyPosition);
+
+				// Left joins without a match and duplicates caused by joining multiple collections
+				if (associationKey != null && !associated.containsKey(associationKey)) {
+					associated.put(associationKey, new TupleBackedMap(projection.index, tuple));
+				}
+			}
+		}
+
+		List<Object> result = new ArrayList<>(roots.size());
+
+		roots.forEach((key, tuple) -> {
+
+			Map<String, Object> values = new HashMap<>();
+
+			for (NestedProjection projection : nested) {
+
+				Collection<Object> associated = associations.get(key).get(projection.property).values();
+
+				values.put(projection.property, projection.collection ? new ArrayList<>(associated)
+						: associated.isEmpty() ? null : associated.iterator().next());
+			}
+
+			result.add(new TupleBackedMap(rootIndex, tuple, values));
+		});
+
+		return result;
+	}
+
+	/**
+	 * Returns the element type of the given property if it is a projection interface or a collection of those,
+	 * {@literal null} otherwise.
+	 */
+	private static Class<?> nestedProjectionType(PropertyDescriptor descriptor) {
+
+		if (descriptor.getReadMethod() == null) {
+			return null;
+		}
+
+		ResolvableType type = ResolvableType.forMethodReturnType(descriptor.getReadMethod());
+		Class<?> candidate = Collection.class.isAssignableFrom(type.resolve()) ? type.asCollection().resolveGeneric(0)
+				: type.resolve();
+
+		return candidate != null && candidate.isInterface() && !candidate.getName().startsWith("java.") ? candidate
+				: null;
+	}
+
+	/**
+	 * Returns whether the given DTO type is no entity and only declares final instance fields.
+	 */
+	private static boolean isImmutableValueType(Class<?> type) {
+
+		if (AnnotatedElementUtils.hasAnnotation(type, Entity.class)
+				|| AnnotatedElementUtils.hasAnnotation(type, Embeddable.class)) {
+			return false;
+		}
+
+		AtomicBoolean immutable = new AtomicBoolean(true);
+
+		ReflectionUtils.doWithFields(type, field -> immutable.set(false),
+				field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers()));
+
+		return immutable.get();
+	}
+
+	private static String identifierProperty(Class<?> type) {
+
+		List<String> identifiers = new ArrayList<>();
+
+		ReflectionUtils.doWithFields(type, field -> identifiers.add(field.getName()),
+				field -> field.isAnnotationPresent(Id.class));
+
+		Assert.isTrue(identifiers.size() == 1, String.format("No single identifier property found on %s!", type.getName()));
+
+		return identifiers.get(0);
+	}
+
+	private static void column(List<String> columns, List<String> aliases, String alias, String property,
+			String columnAlias) {
+
+		columns.add(String.format("%s.%s as %s", alias, property, columnAlias));
+		aliases.add(columnAlias);
+	}
+
+	private static String selectList(List<String> properties, String keyProperty) {
+
+		List<String> columns = new ArrayList<>();
+
+		if (keyProperty != null) {
+			columns.add(String.format("%s.%s as %s", ALIAS, keyProperty, KEY_ALIAS));
+		}
+
+		for (String property : properties) {
+			columns.add(String.format("%s.%s as %s", ALIAS, property, property));
+		}
+
+		return "select " + StringUtils.collectionToDelimitedString(columns, ", ");
+	}
+
+	/**
+	 * Creates a function invoking the given constructor through a {@link MethodHandle} resolved once upfront instead of
+	 * reflectively on each call.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Function<Object[], T> instantiator(Constructor<T> constructor) {
+
+		ReflectionUtils.makeAccessible(constructor);
+
+		MethodHandle handle;
+
+		try {
+			handle = MethodHandles.lookup().unreflectConstructor(constructor);
+		} catch (IllegalAccessException o_O) {
+			throw new BeanInstantiationException(constructor, "Cannot create method handle!", o_O);
+		}
+
+		MethodHandle spreader = handle.asSpreader(Object[].class, constructor.getParameterCount())
+				.asType(MethodType.methodType(Object.class, Object[].class));
+
+		return arguments -> {
+
+			try {
+				return (T) spreader.invokeExact(arguments);
+			} catch (RuntimeException o_O) {
+				throw o_O;
+			} catch (Throwable o_O) {
+				throw new BeanInstantiationException(constructor, o_O.getMessage(), o_O);
+			}
+		};
+	}
+
+	private static List<String> aliases(List<String> properties, String keyProperty) {
+
+		List<String> aliases = new ArrayList<>();
+
+		if (keyProperty != null) {
+			aliases.add(KEY_ALIAS);
+		}
+
+		aliases.addAll(properties);
+
+		return aliases;
+	}
+
+	private static Object[] toArguments(Tuple tuple, int offset, int count) {
+
+		Object[] arguments = new Object[count];
+
+		for (int i = 0; i < count; i++) {
+			arguments[i] = tuple.get(offset + i);
+		}
+
+		return arguments;
+	}
+
+	/**
+	 * A nested projection read through a join along with the positions of its columns within the joined tuples.
+	 */
+	private static class NestedProjection {
+
+		private final String property;
+		private final boolean collection;
+		private final int keyPosition;
+		private final Map<String, Integer> index;
+
+		NestedProjection(String property, boolean collection, int keyPosition, Map<String, Integer> index) {
+
+			this.property = property;
+			this.collection = collection;
+			this.keyPosition = keyPosition;
+			this.index = index;
+		}
+	}
+}
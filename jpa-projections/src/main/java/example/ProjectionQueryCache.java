@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.util.Assert;
+
+import lombok.Value;
+
+/**
+ * Bounded, least-recently-used cache of {@link ProjectionQuery} instances keyed by query name and projection type so
+ * that dynamic projections don't need to derive their select list and result converter on every execution. Exposes
+ * hit and miss counts to help sizing the cache.
+ *
+ * @author agent
+ */
+public class ProjectionQueryCache {
+
+	private final Map<Key, ProjectionQuery<?>> queries;
+	private final int maxSize;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a new {@link ProjectionQueryCache} holding at most the given number of queries.
+	 *
+	 * @param maxSize must be greater than zero.
+	 */
+	@SuppressWarnings("serial")
+	public ProjectionQueryCache(int maxSize) {
+
+		Assert.isTrue(maxSize > 0, "Maximum size must be greater than zero!");
+
+		this.maxSize = maxSize;
+		this.queries = new LinkedHashMap<Key, ProjectionQuery<?>>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, ProjectionQuery<?>> eldest) {
+				return size() > ProjectionQueryCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached {@link ProjectionQuery} for the given query name and projection type or prepares it using the
+	 * given {@link Supplier}.
+	 *
+	 * @param queryName must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @param supplier must not be {@literal null}.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> ProjectionQuery<T> get(String queryName, Class<T> projectionType, Supplier<ProjectionQuery<T>> supplier) {
+
+		Key key = new Key(queryName, projectionType);
+
+		synchronized (queries) {
+
+			ProjectionQuery<T> query = (ProjectionQuery<T>) queries.get(key);
+
+			if (query != null) {
+				hits.incrementAndGet();
+				return query;
+			}
+
+			misses.incrementAndGet();
+			query = supplier.get();
+			queries.put(key, query);
+
+			return query;
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+
+		synchronized (queries) {
+			return queries.size();
+		}
+	}
+
+	@Value
+	private static class Key {
+
+		String queryName;
+		Class<?> projectionType;
+	}
+}
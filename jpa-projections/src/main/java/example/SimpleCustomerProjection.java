@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import lombok.Value;
+
+/**
+ * Hand-written implementation of {@link CustomerProjection}. Using it as query method return type lets Spring Data JPA
+ * select the projected columns through a constructor expression and return plain instances with final fields instead
+ * of proxies backed by a {@link java.util.Map}. Clients can still program against {@link CustomerProjection}.
+ * <p>
+ * Only query methods declaring this class as return type, i.e. {@link CustomerRepository#findAllSimpleProjectedBy()},
+ * skip the proxies. Methods returning the interface still get proxies created by the repository's projection factory,
+ * see {@link CompiledSpelProjectionFactory}.
+ *
+ * @author agent
+ */
+@Value
+public class SimpleCustomerProjection implements CustomerProjection {
+
+	String firstname;
+}
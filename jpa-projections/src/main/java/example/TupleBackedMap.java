@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.Tuple;
+
+/**
+ * Read-only {@link Map} view on a {@link Tuple} to back projection proxies. Instead of copying each tuple into a new
+ * map, values are read straight from the tuple by the column index precomputed once per query.
+ *
+ * @author agent
+ */
+class TupleBackedMap extends AbstractMap<String, Object> {
+
+	private final Map<String, Integer> index;
+	private final Tuple tuple;
+	private final Map<String, Object> associations;
+
+	/**
+	 * Creates a new {@link TupleBackedMap} for the given index obtained through {@link #index(List)} and {@link Tuple}.
+	 *
+	 * @param index must not be {@literal null}.
+	 * @param tuple must not be {@literal null}.
+	 */
+	TupleBackedMap(Map<String, Integer> index, Tuple tuple) {
+		this(index, tuple, Collections.emptyMap());
+	}
+
+	/**
+	 * Creates a new {@link TupleBackedMap} for the given index and {@link Tuple} additionally exposing the given values
+	 * of associations that were collected from multiple tuples.
+	 *
+	 * @param index must not be {@literal null}.
+	 * @param tuple must not be {@literal null}.
+	 * @param associations must not be {@literal null}, keys must not overlap with the index.
+	 */
+	TupleBackedMap(Map<String, Integer> index, Tuple tuple, Map<String, Object> associations) {
+
+		this.index = index;
+		this.tuple = tuple;
+		this.associations = associations;
+	}
+
+	/**
+	 * Creates the index mapping the given column aliases to their position within the tuple.
+	 *
+	 * @param aliases must not be {@literal null}.
+	 * @return
+	 */
+	static Map<String, Integer> index(List<String> aliases) {
+
+		Map<String, Integer> index = new HashMap<>(aliases.size() * 2);
+
+		for (int i = 0; i < aliases.size(); i++) {
+			index.put(aliases.get(i), i);
+		}
+
+		return Collections.unmodifiableMap(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public Object get(Object key) {
+
+		Integer position = index.get(key);
+
+		return position == null ? associations.get(key) : tuple.get(position);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return index.containsKey(key) || associations.containsKey(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return index.size() + associations.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+
+		Set<Entry<String, Object>> entries = new LinkedHashSet<>();
+
+		index.forEach((alias, position) -> entries.add(new SimpleImmutableEntry<>(alias, tuple.get(position))));
+		associations.forEach((property, value) -> entries.add(new SimpleImmutableEntry<>(property, value)));
+
+		return Collections.unmodifiableSet(entries);
+	}
+}
@@ -18,19 +18,38 @@ package example;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.projection.TargetAware;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
+import example.OpenProjectionReport.PushdownCandidate;
+
 /**
  * Integration tests for {@link CustomerRepository} to show projection capabilities.
  * 
@@ -39,11 +58,16 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @RunWith(SpringRunner.class)
 @Transactional
-@SpringBootTest
+@SpringBootTest(properties = "projections.id-batch-size=2")
 @SpringBootApplication
 public class CustomerRepositoryIntegrationTest {
 
 	@Autowired CustomerRepository customers;
+	@Autowired OpenProjectionReport report;
+	@Autowired ProjectionQueryCache queryCache;
+	@Autowired ProjectionMetrics metrics;
+	@Autowired ProjectionCache projectionCache;
+	@PersistenceContext EntityManager em;
 
 	Customer dave, carter;
 
@@ -63,6 +87,45 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(result.iterator().next().getFirstname(), is("Dave"));
 	}
 
+	@Test
+	public void projectsEntityIntoProjectionImplementation() {
+
+		Collection<SimpleCustomerProjection> result = customers.findAllSimpleProjectedBy();
+
+		assertThat(result, hasSize(2));
+
+		CustomerProjection projection = result.iterator().next();
+
+		assertThat(projection.getFirstname(), is("Dave"));
+		assertThat(projection, is(not(instanceOf(TargetAware.class))));
+	}
+
+	@Test
+	public void projectsAsynchronously() throws Exception {
+
+		// Commit the customers so that the executor threads can see them
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+
+		try {
+
+			CompletableFuture<Collection<CustomerProjection>> projections = customers.findAsyncProjectedBy();
+			CompletableFuture<Collection<CustomerDto>> dtos = customers.findAsyncDtoedBy();
+
+			CompletableFuture.allOf(projections, dtos).get(5, TimeUnit.SECONDS);
+
+			assertThat(projections.get(), hasSize(2));
+			assertThat(projections.get().iterator().next().getFirstname(), is("Dave"));
+			assertThat(dtos.get(), hasItems(new CustomerDto("Dave"), new CustomerDto("Carter")));
+
+			assertThat(metrics.metrics().stream().map(Metric::getName).collect(Collectors.toList()),
+					hasItem("projections.executor.queue.depth"));
+
+		} finally {
+			customers.deleteAll();
+		}
+	}
+
 	@Test
 	public void projectsEntityIntoOpenProjectionInterface() {
 
@@ -72,6 +135,16 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(result.iterator().next().getFullName(), is("Dave Matthews"));
 	}
 
+	@Test
+	public void reportsOpenProjectionsUsingSimplePropertiesOnly() {
+
+		List<PushdownCandidate> candidates = report.getPushdownCandidates(CustomerSummary.class, Customer.class);
+
+		assertThat(candidates, hasSize(1));
+		assertThat(candidates.get(0).getMethod().getName(), is("getFullName"));
+		assertThat(candidates.get(0).getProperties(), contains("firstname", "lastname"));
+	}
+
 	@Test
 	public void projectsMapIntoInterface() {
 
@@ -81,6 +154,21 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(result.iterator().next().getFirstname(), is("Dave"));
 	}
 
+	@Test
+	public void projectsTupleIntoInterfaceWithoutCopying() {
+
+		CustomerProjection projection = customers.findsByProjectedColumns().iterator().next();
+
+		assertThat(((TargetAware) projection).getTarget(), is(instanceOf(TupleBackedMap.class)));
+		assertThat(projection.getFirstname(), is("Dave"));
+
+		CustomerKeysetProjection dynamic = customers.findByFirstname("Dave", CustomerKeysetProjection.class).iterator()
+				.next();
+
+		assertThat(((TargetAware) dynamic).getTarget(), is(instanceOf(TupleBackedMap.class)));
+		assertThat(dynamic.getId(), is(dave.getId()));
+	}
+
 	@Test
 	public void projectsToDto() {
 
@@ -88,6 +176,7 @@ public class CustomerRepositoryIntegrationTest {
 
 		assertThat(result, hasSize(2));
 		assertThat(result.iterator().next().getFirstname(), is("Dave"));
+		assertThat(result, hasItems(new CustomerDto("Dave"), new CustomerDto("Carter")));
 	}
 
 	@Test
@@ -99,6 +188,76 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(result.iterator().next().getFirstname(), is("Dave"));
 	}
 
+	@Test
+	public void projectsDynamicallyIntoDto() {
+
+		Collection<CustomerDto> result = customers.findByFirstname("Dave", CustomerDto.class);
+
+		assertThat(result, contains(new CustomerDto("Dave")));
+	}
+
+	@Test
+	public void reusesPreparedQueryPerProjectionType() {
+
+		customers.findByFirstname("Dave", CustomerProjection.class);
+
+		long hits = queryCache.getHitCount();
+		long misses = queryCache.getMissCount();
+
+		customers.findByFirstname("Carter", CustomerProjection.class);
+
+		assertThat(queryCache.getHitCount(), is(hits + 1));
+		assertThat(queryCache.getMissCount(), is(misses));
+	}
+
+	@Test
+	public void projectsMultipleIdsInGivenOrderUsingBatches() {
+
+		Customer boyd = customers.save(new Customer("Boyd", "Tinsley"));
+		Customer stefan = customers.save(new Customer("Stefan", "Lessard"));
+
+		List<CustomerProjection> result = customers.findProjectedByIdIn(
+				Arrays.asList(stefan.getId(), dave.getId(), Long.MAX_VALUE, boyd.getId(), carter.getId(), dave.getId()),
+				CustomerProjection.class);
+
+		assertThat(result.stream().map(CustomerProjection::getFirstname).collect(Collectors.toList()),
+				contains("Stefan", "Dave", "Boyd", "Carter", "Dave"));
+	}
+
+	@Test
+	public void projectsMultipleIdsIntoDtos() {
+
+		List<CustomerDto> result = customers.findProjectedByIdIn(Arrays.asList(carter.getId(), dave.getId()),
+				CustomerDto.class);
+
+		assertThat(result, contains(new CustomerDto("Carter"), new CustomerDto("Dave")));
+	}
+
+	@Test
+	public void pagesProjectionsUsingKeyset() {
+
+		customers.save(IntStream.range(0, 24) //
+				.mapToObj(i -> new Customer("Dave", "Seeded")) //
+				.collect(Collectors.toList()));
+
+		List<Long> ids = new ArrayList<>();
+		Long lastSeenId = null;
+		Slice<CustomerKeysetProjection> window;
+
+		do {
+
+			window = customers.findNextByFirstname("Dave", lastSeenId, 10);
+
+			window.forEach(it -> ids.add(it.getId()));
+			lastSeenId = ids.get(ids.size() - 1);
+
+		} while (window.hasNext());
+
+		assertThat(ids, hasSize(25));
+		assertThat(ids.get(0), is(dave.getId()));
+		assertThat(new TreeSet<>(ids), contains(ids.toArray()));
+	}
+
 	@Test
 	public void projectsIndividualDynamically() {
 
@@ -110,6 +269,84 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(((TargetAware) result).getTarget(), is(instanceOf(Customer.class)));
 	}
 
+	@Test
+	public void cachesIndividualProjectionsUntilCustomerChanges() {
+
+		// Commit the customers as the cache is only populated by committed transactions
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+
+		try {
+
+			CustomerProjection projection = customers.findProjectedById(dave.getId(), CustomerProjection.class);
+			CustomerDto dto = customers.findProjectedById(dave.getId(), CustomerDto.class);
+
+			assertThat(customers.findProjectedById(dave.getId(), CustomerProjection.class), is(sameInstance(projection)));
+			assertThat(customers.findProjectedById(dave.getId(), CustomerDto.class), is(sameInstance(dto)));
+
+			customers.save(renamed(carter, "Carl"));
+
+			assertThat(customers.findProjectedById(dave.getId(), CustomerProjection.class), is(sameInstance(projection)));
+
+			customers.save(renamed(dave, "David"));
+
+			assertThat(customers.findProjectedById(dave.getId(), CustomerProjection.class).getFirstname(), is("David"));
+			assertThat(customers.findProjectedById(dave.getId(), CustomerDto.class).getFirstname(), is("David"));
+
+		} finally {
+			customers.deleteAll();
+		}
+	}
+
+	@Test
+	public void doesNotCacheProjectionsReadBeforeConcurrentChange() {
+
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+
+		try {
+
+			CustomerProjection stale = customers.findProjectedById(dave.getId(), CustomerProjection.class);
+			long stamp = projectionCache.stamp(dave.getId());
+
+			customers.save(renamed(dave, "David"));
+			projectionCache.put(dave.getId(), CustomerProjection.class, stale, stamp);
+
+			assertThat(customers.findProjectedById(dave.getId(), CustomerProjection.class).getFirstname(), is("David"));
+
+		} finally {
+			customers.deleteAll();
+		}
+	}
+
+	@Test
+	public void doesNotCacheEntitiesOrOpenProjections() {
+
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+
+		try {
+
+			CustomerSummary summary = customers.findProjectedById(dave.getId(), CustomerSummary.class);
+			Customer customer = customers.findProjectedById(dave.getId(), Customer.class);
+
+			assertThat(customers.findProjectedById(dave.getId(), CustomerSummary.class), is(not(sameInstance(summary))));
+			assertThat(customers.findProjectedById(dave.getId(), Customer.class), is(not(sameInstance(customer))));
+
+		} finally {
+			customers.deleteAll();
+		}
+	}
+
+	@Test
+	public void defersCachingUntilCommit() {
+
+		CustomerProjection projection = customers.findProjectedById(dave.getId(), CustomerProjection.class);
+
+		assertThat(customers.findProjectedById(dave.getId(), CustomerProjection.class),
+				is(not(sameInstance(projection))));
+	}
+
 	@Test
 	public void projectIndividualInstance() {
 
@@ -118,4 +355,118 @@ public class CustomerRepositoryIntegrationTest {
 		assertThat(projectedDave.getFirstname(), is("Dave"));
 		assertThat(((TargetAware) projectedDave).getTarget(), is(instanceOf(Map.class)));
 	}
+
+	@Test
+	public void projectsNestedCollectionThroughJoin() {
+
+		dave.getAddresses().add(new Address("Broadway", "New York"));
+		dave.getAddresses().add(new Address("Main Street", "Charlottesville"));
+		customers.save(dave);
+
+		em.flush();
+		em.clear();
+
+		Collection<CustomerWithAddresses> result = customers.findByFirstname("Dave",
+				CustomerWithAddresses.class);
+
+		assertThat(result, hasSize(1));
+
+		CustomerWithAddresses projection = result.iterator().next();
+
+		assertThat(projection.getFirstname(), is("Dave"));
+		assertThat(projection.getAddresses().stream().map(AddressSummary::getCity).collect(Collectors.toList()),
+				containsInAnyOrder("New York", "Charlottesville"));
+		assertThat(em.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+	}
+
+	@Test
+	public void projectsEmptyNestedCollectionForBatchedIds() {
+
+		dave.getAddresses().add(new Address("Broadway", "New York"));
+		customers.save(dave);
+
+		List<CustomerWithAddresses> result = customers.findProjectedByIdIn(Arrays.asList(carter.getId(), dave.getId()),
+				CustomerWithAddresses.class);
+
+		assertThat(result.stream().map(CustomerWithAddresses::getFirstname).collect(Collectors.toList()),
+				contains("Carter", "Dave"));
+		assertThat(result.get(0).getAddresses(), is(empty()));
+		assertThat(result.get(1).getAddresses(), hasSize(1));
+	}
+
+	@Test
+	public void readsProjectionIntoColumns() {
+
+		ProjectionColumns columns = customers.findAllProjectedColumnsBy(CustomerKeysetProjection.class);
+
+		assertThat(columns.size(), is(2));
+		assertThat(columns.getProperties(), containsInAnyOrder("id", "firstname"));
+		assertThat(Arrays.asList(columns.getStrings("firstname")), contains("Dave", "Carter"));
+		assertThat(columns.getLongs("id")[1], is(carter.getId()));
+		assertThat(columns.isNull("id", 0), is(false));
+	}
+
+	@Test
+	public void rejectsAssociationsForColumns() {
+
+		try {
+			customers.findAllProjectedColumnsBy(CustomerWithAddresses.class);
+			fail("Expected columnar projection of addresses to be rejected!");
+		} catch (InvalidDataAccessApiUsageException o_O) {
+			// IllegalArgumentException translated by the repository proxy
+			assertThat(o_O.getCause(), is(instanceOf(IllegalArgumentException.class)));
+			assertThat(o_O.getMessage(), containsString("addresses"));
+		}
+	}
+
+	@Test
+	public void streamsProjectionsWithoutMaterializingEntities() {
+
+		seedCustomers(10000);
+
+		try (Stream<CustomerProjection> stream = customers.streamAllProjectedBy()) {
+
+			assertThat(stream.filter(it -> it.getFirstname() != null).count(), is(10002L));
+		}
+
+		// Rows are read into projections only, nothing is held by the persistence context
+		assertThat(em.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+	}
+
+	@Test
+	public void streamsDtos() {
+
+		seedCustomers(10000);
+
+		try (Stream<CustomerDto> stream = customers.streamAllDtoedBy()) {
+
+			assertThat(stream.map(CustomerDto::getFirstname).filter("Dave"::equals).count(), is(1L));
+		}
+
+		assertThat(em.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+	}
+
+	/**
+	 * Saves the given number of additional customers and detaches all entities so that only rows read by the test
+	 * itself show up in the persistence context.
+	 */
+	private void seedCustomers(int count) {
+
+		List<Customer> seed = IntStream.range(0, count) //
+				.mapToObj(i -> new Customer("Customer " + i, "Seeded")) //
+				.collect(Collectors.toList());
+
+		customers.save(seed);
+
+		em.flush();
+		em.clear();
+	}
+
+	private static Customer renamed(Customer customer, String firstname) {
+
+		Customer renamed = new Customer(firstname, customer.getLastname());
+		renamed.setId(customer.getId());
+
+		return renamed;
+	}
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * JMH benchmarks comparing {@code count}, {@code exists} and paged Query-by-Example execution through the dedicated
+ * {@link ExampleQuery} count and exists queries with the criteria queries of
+ * {@link org.springframework.data.jpa.repository.support.SimpleJpaRepository}.
+ *
+ * @author agent
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class CountExistsBenchmarks {
+
+	private static final Example<User> PROBE = Example.of(new User(null, "Lastname 420", null));
+
+	/**
+	 * A page large enough to hold all {@code size / LASTNAMES} matches of {@link #PROBE} for the default dataset size.
+	 */
+	private static final Pageable PARTIAL_PAGE = new PageRequest(0, 20000);
+
+	@Benchmark
+	public Object count(UserDataset dataset) {
+		return dataset.users.count(PROBE);
+	}
+
+	@Benchmark
+	public Object countCriteria(UserDataset dataset) {
+		return dataset.transactions.execute(status -> dataset.baseline.count(PROBE));
+	}
+
+	@Benchmark
+	public Object exists(UserDataset dataset) {
+		return dataset.users.exists(PROBE);
+	}
+
+	@Benchmark
+	public Object existsCriteria(UserDataset dataset) {
+		return dataset.transactions.execute(status -> dataset.baseline.exists(PROBE));
+	}
+
+	@Benchmark
+	public Object partialPage(UserDataset dataset) {
+		return dataset.users.findAll(PROBE, PARTIAL_PAGE);
+	}
+
+	@Benchmark
+	public Object partialPageCriteria(UserDataset dataset) {
+		return dataset.transactions.execute(status -> dataset.baseline.findAll(PROBE, PARTIAL_PAGE));
+	}
+}
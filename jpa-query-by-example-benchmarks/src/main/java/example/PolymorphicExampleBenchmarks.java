@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+
+/**
+ * JMH benchmarks comparing Query-by-Example probes within the {@link User}/{@link SpecialUser} single table hierarchy
+ * executed through the cached {@link ExampleQuery} with the criteria queries of
+ * {@link org.springframework.data.jpa.repository.support.SimpleJpaRepository}. Subtype probes are restricted by the
+ * discriminator, which the {@code dtype, lastname} index serves.
+ *
+ * @author agent
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class PolymorphicExampleBenchmarks {
+
+	private static final Example<SpecialUser> SUBTYPE_PROBE = Example.of(new SpecialUser(null, "Lastname 420", null));
+	private static final Example<User> ROOT_PROBE = Example.of(new User(null, "Lastname 420", null));
+
+	@Benchmark
+	public Object subtypeProbe(UserDataset dataset) {
+		return dataset.users.findAll(SUBTYPE_PROBE);
+	}
+
+	@Benchmark
+	public Object subtypeProbeCriteria(UserDataset dataset) {
+		return dataset.transactions.execute(status -> dataset.baseline.findAll(SUBTYPE_PROBE));
+	}
+
+	@Benchmark
+	public Object rootProbe(UserDataset dataset) {
+		return dataset.users.findAll(ROOT_PROBE);
+	}
+
+	@Benchmark
+	public Object rootProbeCriteria(UserDataset dataset) {
+		return dataset.transactions.execute(status -> dataset.baseline.findAll(ROOT_PROBE));
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * JMH state bootstrapping the application against a disk-backed database seeded with {@link #size} users, every tenth
+ * of them a {@link SpecialUser}. Last names repeat every {@value #LASTNAMES} users.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class UserDataset {
+
+	static final int LASTNAMES = 1000;
+	private static final int CHUNK_SIZE = 10000;
+
+	/**
+	 * The number of users to seed the database with. Larger datasets are opt-in, e.g. {@code -p size=10000000}.
+	 */
+	@Param({ "10000" }) int size;
+
+	ConfigurableApplicationContext context;
+	UserRepository users;
+	TransactionTemplate transactions;
+
+	/**
+	 * Plain {@link SimpleJpaRepository} executing Query-by-Example through criteria queries as a baseline. Needs to be
+	 * invoked within {@link #transactions} to match the transactional setup of {@link #users}.
+	 */
+	SimpleJpaRepository<User, Long> baseline;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(BenchmarkApplication.class) //
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN") //
+				.run();
+
+		EntityManager em = SharedEntityManagerCreator
+				.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+		this.users = context.getBean(UserRepository.class);
+		this.transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		this.transactions.setReadOnly(true);
+		this.baseline = new SimpleJpaRepository<>(User.class, em);
+
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+		for (int offset = 0; offset < size; offset += CHUNK_SIZE) {
+
+			List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+
+			for (int i = offset; i < Math.min(offset + CHUNK_SIZE, size); i++) {
+				chunk.add(new Object[] { i % 10 == 0 ? "SpecialUser" : "User", "Firstname " + i, "Lastname " + i % LASTNAMES,
+						i % 100 });
+			}
+
+			jdbc.batchUpdate("insert into user (dtype, firstname, lastname, age) values (?, ?, ?, ?)", chunk);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+}
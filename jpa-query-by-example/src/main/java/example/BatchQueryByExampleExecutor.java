@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Example;
+
+/**
+ * Executes many Query-by-Example probes in a few round trips. Implemented by {@link ExampleQueryJpaRepository}.
+ *
+ * @author agent
+ */
+public interface BatchQueryByExampleExecutor<T> {
+
+	/**
+	 * Returns the entities matching each of the given {@link Example}s. Examples with the same probe type, matcher and
+	 * set of properties holding a value are combined into a single query matching any of them. The query also tells
+	 * which of the examples each result matches so that the database's comparison semantics apply to the assignment.
+	 *
+	 * @param examples must not be {@literal null}.
+	 * @return the matching entities per {@link Example} in the order of the given examples.
+	 */
+	<S extends T> Map<Example<S>, List<S>> findAllByExamples(Collection<Example<S>> examples);
+}
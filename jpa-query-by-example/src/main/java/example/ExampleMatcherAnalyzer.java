@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Column;
+import javax.persistence.DiscriminatorColumn;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inspects the {@link StringMatcher} and case handling configured for properties backed by an index declared through
+ * {@link Table#indexes()}. {@code CONTAINING} and {@code ENDING} matches as well as case-insensitive matches result in
+ * {@code like '%…'} and {@code lower(…)} predicates a B-tree index cannot serve. These are logged and counted once
+ * per property. If enabled, {@code CONTAINING} matches on indexed properties are rewritten to {@code STARTING}
+ * matches.
+ * <p>
+ * <strong>Warning:</strong> rewriting {@code CONTAINING} matches changes query results. A probe value of {@code "hrad"}
+ * no longer matches {@code "Schrader"} but only values starting with {@code "hrad"}. Only enable it if all callers
+ * using {@code CONTAINING} matches on indexed properties actually mean prefix matches.
+ * <p>
+ * Composite indexes led by the discriminator column of a single table inheritance hierarchy, e.g.
+ * {@code "dtype, lastname"}, also serve predicates on their second column for probes of a subtype as the persistence
+ * provider restricts queries for subtypes by the discriminator. Queries for the root type aren't restricted and can't
+ * use such an index.
+ *
+ * @author agent
+ */
+@Slf4j
+public class ExampleMatcherAnalyzer {
+
+	private final boolean rewriteContaining;
+	private final Map<Class<?>, Indexes> indexes = new ConcurrentHashMap<>();
+	private final AtomicLong nonSargable = new AtomicLong();
+	private final AtomicLong rewritten = new AtomicLong();
+
+	/**
+	 * Creates a new {@link ExampleMatcherAnalyzer}.
+	 *
+	 * @param rewriteContaining whether to rewrite {@code CONTAINING} matches on indexed properties to {@code STARTING}
+	 *          matches. <strong>Changes query results:</strong> rewritten matches no longer find values containing the
+	 *          probe value anywhere but the start.
+	 */
+	public ExampleMatcherAnalyzer(boolean rewriteContaining) {
+		this.rewriteContaining = rewriteContaining;
+	}
+
+	/**
+	 * Analyzes the matching of the given property and returns the {@link StringMatcher} to use.
+	 *
+	 * @param probeType must not be {@literal null}.
+	 * @param property must not be {@literal null}.
+	 * @param stringMatcher must not be {@literal null}.
+	 * @param ignoreCase
+	 * @return
+	 */
+	StringMatcher analyze(Class<?> probeType, Field property, StringMatcher stringMatcher, boolean ignoreCase) {
+
+		if (!getIndexes(probeType).isIndexed(getColumnName(property))) {
+			return stringMatcher;
+		}
+
+		StringMatcher result = stringMatcher;
+		boolean sargable = true;
+
+		if (ignoreCase) {
+
+			sargable = false;
+			log.warn("Case-insensitive match on indexed property {}.{} cannot use the index!", probeType.getSimpleName(),
+					property.getName());
+		}
+
+		if (stringMatcher.equals(StringMatcher.CONTAINING) && rewriteContaining) {
+
+			result = StringMatcher.STARTING;
+			rewritten.incrementAndGet();
+			log.info("Rewriting {} match on indexed property {}.{} to {}.", stringMatcher, probeType.getSimpleName(),
+					property.getName(), result);
+
+		} else if (stringMatcher.equals(StringMatcher.CONTAINING) || stringMatcher.equals(StringMatcher.ENDING)) {
+
+			sargable = false;
+			log.warn("{} match on indexed property {}.{} cannot use the index!", stringMatcher, probeType.getSimpleName(),
+					property.getName());
+		}
+
+		// Count each property once, no matter how many reasons rule out the index
+		if (!sargable) {
+			nonSargable.incrementAndGet();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of property matches found that cannot use an index.
+	 *
+	 * @return
+	 */
+	public long getNonSargableCount() {
+		return nonSargable.get();
+	}
+
+	/**
+	 * Returns the number of {@code CONTAINING} matches rewritten to {@code STARTING} matches.
+	 *
+	 * @return
+	 */
+	public long getRewrittenCount() {
+		return rewritten.get();
+	}
+
+	private Indexes getIndexes(Class<?> type) {
+		return indexes.computeIfAbsent(type, Indexes::of);
+	}
+
+	private static String getColumnName(Field property) {
+
+		Column column = property.getAnnotation(Column.class);
+
+		return (column == null || !StringUtils.hasText(column.name()) ? property.getName() : column.name())
+				.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * The columns of the indexes declared on an entity type and its superclasses usable by a predicate on a single
+	 * column.
+	 */
+	private static class Indexes {
+
+		private static final String DEFAULT_DISCRIMINATOR_COLUMN = "dtype";
+
+		private final Set<String> leading = new HashSet<>();
+		private final Set<String> discriminatorLed = new HashSet<>();
+
+		static Indexes of(Class<?> type) {
+
+			Indexes indexes = new Indexes();
+			String discriminator = DEFAULT_DISCRIMINATOR_COLUMN;
+			boolean subtype = false;
+
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+
+				DiscriminatorColumn column = current.getAnnotation(DiscriminatorColumn.class);
+
+				if (column != null) {
+					discriminator = column.name().toLowerCase(Locale.ROOT);
+				}
+
+				subtype |= current != type && current.isAnnotationPresent(Entity.class);
+			}
+
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+
+				Table table = current.getAnnotation(Table.class);
+
+				if (table == null) {
+					continue;
+				}
+
+				for (Index index : table.indexes()) {
+
+					String[] columns = StringUtils.tokenizeToStringArray(index.columnList(), ",");
+
+					if (columns.length == 0) {
+						continue;
+					}
+
+					indexes.leading.add(columnName(columns[0]));
+
+					if (subtype && columns.length > 1 && columnName(columns[0]).equals(discriminator)) {
+						indexes.discriminatorLed.add(columnName(columns[1]));
+					}
+				}
+			}
+
+			return indexes;
+		}
+
+		boolean isIndexed(String column) {
+			return leading.contains(column) || discriminatorLed.contains(column);
+		}
+
+		/**
+		 * Strips the optional sort order from an index column definition.
+		 */
+		private static String columnName(String definition) {
+			return StringUtils.tokenizeToStringArray(definition, " ")[0].toLowerCase(Locale.ROOT);
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ExampleMatcher.NullHandler;
+import org.springframework.data.domain.ExampleMatcher.PropertyValueTransformer;
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.data.repository.core.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The properties of a probe type considered by an {@link ExampleMatcher}, resolved once per probe type and matcher.
+ * Reading a probe only accesses the prepared fields and applies the configured value transformers. The properties
+ * holding a value (their shape) determine the {@link ExampleQuery} to use.
+ *
+ * @author agent
+ */
+class ExampleProbe {
+
+	private final Class<?> probeType;
+	private final String entityName;
+	private final ExampleMatcher matcher;
+	private final List<ExampleProperty> properties;
+
+	private ExampleProbe(Class<?> probeType, String entityName, ExampleMatcher matcher,
+			List<ExampleProperty> properties) {
+
+		this.probeType = probeType;
+		this.entityName = entityName;
+		this.matcher = matcher;
+		this.properties = properties;
+	}
+
+	/**
+	 * Resolves the properties of the given probe type considered by the given {@link ExampleMatcher}.
+	 *
+	 * @param probeType must not be {@literal null}.
+	 * @param matcher must not be {@literal null}.
+	 * @param metamodel must not be {@literal null}.
+	 * @param analyzer the {@link ExampleMatcherAnalyzer} to check string matches with, must not be {@literal null}.
+	 * @return the {@link ExampleProbe} or {@literal null} if the probe type uses embeddables or associations that are
+	 *         not ignored by the matcher.
+	 */
+	static ExampleProbe of(Class<?> probeType, ExampleMatcher matcher, Metamodel metamodel,
+			ExampleMatcherAnalyzer analyzer) {
+
+		EntityType<?> entity = metamodel.entity(probeType);
+		ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+		List<ExampleProperty> properties = new ArrayList<>();
+
+		for (SingularAttribute<?, ?> attribute : entity.getSingularAttributes()) {
+
+			String path = attribute.getName();
+
+			if (accessor.isIgnoredPath(path)) {
+				continue;
+			}
+
+			if (!attribute.getPersistentAttributeType().equals(PersistentAttributeType.BASIC)) {
+				return null;
+			}
+
+			Field field = ReflectionUtils.findField(probeType, path);
+
+			if (field == null) {
+				return null;
+			}
+
+			ReflectionUtils.makeAccessible(field);
+
+			boolean string = String.class.equals(attribute.getJavaType());
+			boolean ignoreCase = string && accessor.isIgnoreCaseForPath(path);
+			StringMatcher stringMatcher = string
+					? analyzer.analyze(probeType, field, accessor.getStringMatcherForPath(path), ignoreCase)
+					: StringMatcher.EXACT;
+
+			properties.add(new ExampleProperty(path, field, accessor.getValueTransformerForPath(path), stringMatcher,
+					ignoreCase));
+		}
+
+		properties.sort(Comparator.comparing(property -> property.path));
+
+		return new ExampleProbe(probeType, entity.getName(), matcher, Collections.unmodifiableList(properties));
+	}
+
+	Class<?> getProbeType() {
+		return probeType;
+	}
+
+	ExampleMatcher getMatcher() {
+		return matcher;
+	}
+
+	/**
+	 * Reads the transformed values of all properties from the given probe.
+	 *
+	 * @param probe must not be {@literal null}.
+	 * @return
+	 */
+	Object[] read(Object probe) {
+
+		Object[] values = new Object[properties.size()];
+
+		for (int i = 0; i < values.length; i++) {
+
+			ExampleProperty property = properties.get(i);
+
+			values[i] = property.transformer.convert(ReflectionUtils.getField(property.field, probe));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Returns the shape of the given values as read by {@link #read(Object)}, i.e. the positions of non-{@literal null}
+	 * values.
+	 *
+	 * @param values must not be {@literal null}.
+	 * @return
+	 */
+	BitSet shape(Object[] values) {
+
+		BitSet shape = new BitSet(values.length);
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				shape.set(i);
+			}
+		}
+
+		return shape;
+	}
+
+	/**
+	 * Compiles the {@link ExampleQuery} for the given shape.
+	 *
+	 * @param shape must not be {@literal null}.
+	 * @return
+	 */
+	ExampleQuery compile(BitSet shape) {
+		return compile(shape, 1);
+	}
+
+	/**
+	 * Compiles the {@link ExampleQuery} matching any of the given number of probes of the given shape. The values of the
+	 * probes are expected to be concatenated in the order of the probes. The predicates of each probe are kept to let
+	 * the database tell which probes a result matches, see {@link ExampleQuery#createBatchQuery(EntityManager, Object[])}.
+	 *
+	 * @param shape must not be {@literal null}.
+	 * @param probes must be greater than zero.
+	 * @return
+	 */
+	ExampleQuery compile(BitSet shape, int probes) {
+
+		List<String> predicates = new ArrayList<>();
+		List<String> alternatives = new ArrayList<>();
+		List<String> discriminators = new ArrayList<>();
+		List<ExampleQuery.Parameter> parameters = new ArrayList<>();
+
+		for (int probe = 0; probe < probes; probe++) {
+
+			List<String> conjunction = new ArrayList<>();
+
+			for (int i = 0; i < properties.size(); i++) {
+
+				ExampleProperty property = properties.get(i);
+				String path = ExampleQuery.ALIAS + "." + property.path;
+
+				if (!shape.get(i)) {
+
+					if (matcher.getNullHandler().equals(NullHandler.INCLUDE)) {
+						conjunction.add(path + " is null");
+					}
+
+					continue;
+				}
+
+				String name = probes == 1 ? "p" + i : "p" + i + "_" + probe;
+				String expression = property.ignoreCase ? "lower(" + path + ")" : path;
+
+				switch (property.stringMatcher) {
+					case DEFAULT:
+					case EXACT:
+						conjunction.add(String.format("%s = :%s", expression, name));
+						break;
+					case STARTING:
+					case ENDING:
+					case CONTAINING:
+						conjunction.add(String.format("%s like :%s", expression, name));
+						break;
+					default:
+						throw new IllegalArgumentException("Unsupported StringMatcher " + property.stringMatcher);
+				}
+
+				parameters.add(new ExampleQuery.Parameter(name, probe * properties.size() + i, property.stringMatcher,
+						property.ignoreCase));
+			}
+
+			String discriminator = conjunction.isEmpty() ? "1 = 1"
+					: "(" + StringUtils.collectionToDelimitedString(conjunction, " and ") + ")";
+
+			discriminators.add(discriminator);
+
+			if (probes == 1) {
+				predicates.addAll(conjunction);
+			} else if (!conjunction.isEmpty()) {
+				alternatives.add(discriminator);
+			}
+		}
+
+		// A probe without predicates matches all entities
+		if (probes > 1 && alternatives.size() == probes) {
+			predicates.add("(" + StringUtils.collectionToDelimitedString(alternatives, " or ") + ")");
+		}
+
+		return new ExampleQuery(entityName, predicates, discriminators, parameters);
+	}
+
+	/**
+	 * A property of the probe type along with the matcher settings for its path.
+	 */
+	private static class ExampleProperty {
+
+		private final String path;
+		private final Field field;
+		private final PropertyValueTransformer transformer;
+		private final StringMatcher stringMatcher;
+		private final boolean ignoreCase;
+
+		ExampleProperty(String path, Field field, PropertyValueTransformer transformer, StringMatcher stringMatcher,
+				boolean ignoreCase) {
+
+			this.path = path;
+			this.field = field;
+			this.transformer = transformer;
+			this.stringMatcher = stringMatcher;
+			this.ignoreCase = ignoreCase;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.persistence.Tuple;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PreferredConstructor.Parameter;
+import org.springframework.data.mapping.model.PreferredConstructorDiscoverer;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The properties to select for a projection type along with the converter turning result rows into instances of that
+ * type. Closed projection interfaces and DTOs select the properties they need as {@link Tuple}s, other types (open
+ * projection interfaces and supertypes of the domain type) read the entity.
+ *
+ * @author agent
+ */
+class ExampleProjection<P> {
+
+	private final List<String> properties;
+	private final Function<Object, P> converter;
+
+	private ExampleProjection(List<String> properties, Function<Object, P> converter) {
+
+		this.properties = properties;
+		this.converter = converter;
+	}
+
+	/**
+	 * Prepares the projection of the given domain type into the given projection type.
+	 *
+	 * @param projectionType must not be {@literal null}.
+	 * @param domainType must not be {@literal null}.
+	 * @param factory the {@link ProjectionFactory} to create projection interfaces.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static <P> ExampleProjection<P> of(Class<P> projectionType, Class<?> domainType, ProjectionFactory factory) {
+
+		if (projectionType.isAssignableFrom(domainType)) {
+			return new ExampleProjection<>(Collections.emptyList(), row -> (P) row);
+		}
+
+		if (projectionType.isInterface()) {
+
+			ProjectionInformation information = factory.getProjectionInformation(projectionType);
+
+			if (!information.isClosed()) {
+				return new ExampleProjection<>(Collections.emptyList(), row -> factory.createProjection(projectionType, row));
+			}
+
+			List<String> properties = new ArrayList<>();
+
+			for (PropertyDescriptor descriptor : information.getInputProperties()) {
+				properties.add(descriptor.getName());
+			}
+
+			return new ExampleProjection<>(properties,
+					row -> factory.createProjection(projectionType, toMap(properties, (Tuple) row)));
+		}
+
+		PreferredConstructor<P, ?> constructor = new PreferredConstructorDiscoverer<>(projectionType).getConstructor();
+		Function<Object[], P> instantiator = instantiator(constructor.getConstructor());
+		List<String> properties = new ArrayList<>();
+
+		for (Parameter<Object, ?> parameter : constructor.getParameters()) {
+			properties.add(parameter.getName());
+		}
+
+		return new ExampleProjection<>(properties, row -> instantiator.apply(((Tuple) row).toArray()));
+	}
+
+	/**
+	 * Returns the properties to select or an empty list if the entity needs to be read.
+	 *
+	 * @return
+	 */
+	List<String> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Returns whether only {@link #getProperties()} need to be selected instead of the entity.
+	 *
+	 * @return
+	 */
+	boolean isNarrowing() {
+		return !properties.isEmpty();
+	}
+
+	/**
+	 * Converts the given result row, a {@link Tuple} for {@link #isNarrowing() narrowing} projections or the entity
+	 * otherwise.
+	 *
+	 * @param row must not be {@literal null}.
+	 * @return
+	 */
+	P convert(Object row) {
+		return converter.apply(row);
+	}
+
+	/**
+	 * Creates a function passing the values of a result {@link Tuple} to the DTO constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <P> Function<Object[], P> instantiator(Constructor<P> constructor) {
+
+		ReflectionUtils.makeAccessible(constructor);
+
+		MethodHandle handle;
+
+		try {
+			handle = MethodHandles.lookup().unreflectConstructor(constructor);
+		} catch (IllegalAccessException o_O) {
+			throw new BeanInstantiationException(constructor, "Cannot create method handle!", o_O);
+		}
+
+		MethodHandle spreader = handle.asSpreader(Object[].class, constructor.getParameterCount())
+				.asType(MethodType.methodType(Object.class, Object[].class));
+
+		return arguments -> {
+
+			try {
+				return (P) spreader.invokeExact(arguments);
+			} catch (RuntimeException o_O) {
+				throw o_O;
+			} catch (Throwable o_O) {
+				throw new BeanInstantiationException(constructor, o_O.getMessage(), o_O);
+			}
+		};
+	}
+
+	private static Map<String, Object> toMap(List<String> properties, Tuple tuple) {
+
+		Map<String, Object> map = new HashMap<>(properties.size() * 2);
+
+		for (int i = 0; i < properties.size(); i++) {
+			map.put(properties.get(i), tuple.get(i));
+		}
+
+		return map;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * JPQL query compiled for a particular probe type, {@link org.springframework.data.domain.ExampleMatcher} and set of
+ * probe properties holding a value. Executing the query for another probe of the same shape only binds the probe's
+ * values as parameters instead of building a new criteria predicate tree.
+ *
+ * @author agent
+ */
+public class ExampleQuery {
+
+	static final String ALIAS = "e";
+
+	private final String from;
+	private final List<String> discriminators;
+	private final List<Parameter> parameters;
+
+	ExampleQuery(String entityName, List<String> predicates, List<String> discriminators, List<Parameter> parameters) {
+
+		this.from = String.format(" from %s %s", entityName, ALIAS)
+				+ (predicates.isEmpty() ? "" : " where " + StringUtils.collectionToDelimitedString(predicates, " and "));
+		this.discriminators = discriminators;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Returns the JPQL query selecting the matching entities.
+	 *
+	 * @return
+	 */
+	public String getJpql() {
+		return "select " + ALIAS + from;
+	}
+
+	/**
+	 * Creates a {@link TypedQuery} selecting the entities matching the given probe values.
+	 *
+	 * @param em must not be {@literal null}.
+	 * @param type the type of the entities to select, must not be {@literal null}.
+	 * @param values the probe values as read by {@link ExampleProbe#read(Object)}, must not be {@literal null}.
+	 * @param sort can be {@literal null}.
+	 * @return
+	 */
+	public <S> TypedQuery<S> createQuery(EntityManager em, Class<S> type, Object[] values, Sort sort) {
+		return bind(em.createQuery(QueryUtils.applySorting(getJpql(), sort, ALIAS), type), values);
+	}
+
+	/**
+	 * Creates a {@link TypedQuery} selecting only the given properties of the entities matching the given probe values.
+	 * Each property is aliased with its name.
+	 *
+	 * @param em must not be {@literal null}.
+	 * @param properties the properties to select, must not be {@literal null} or empty.
+	 * @param values the probe values as read by {@link ExampleProbe#read(Object)}, must not be {@literal null}.
+	 * @param sort can be {@literal null}.
+	 * @return
+	 */
+	public TypedQuery<Tuple> createTupleQuery(EntityManager em, List<String> properties, Object[] values, Sort sort) {
+
+		StringBuilder select = new StringBuilder("select ");
+
+		for (int i = 0; i < properties.size(); i++) {
+			select.append(i == 0 ? "" : ", ").append(ALIAS).append('.').append(properties.get(i)).append(" as ")
+					.append(properties.get(i));
+		}
+
+		return bind(em.createQuery(QueryUtils.applySorting(select + from, sort, ALIAS), Tuple.class), values);
+	}
+
+	/**
+	 * Creates a {@link TypedQuery} selecting the entities matching any of the probes a batch query was compiled for, see
+	 * {@link ExampleProbe#compile(java.util.BitSet, int)}. Each row holds the entity followed by one discriminator per
+	 * probe, {@literal 1} if the entity matches the probe and {@literal 0} otherwise, so that the database assigns the
+	 * results to the probes using its own comparison semantics.
+	 *
+	 * @param em must not be {@literal null}.
+	 * @param values the concatenated values of all probes as read by {@link ExampleProbe#read(Object)}, must not be
+	 *          {@literal null}.
+	 * @return
+	 */
+	public TypedQuery<Object[]> createBatchQuery(EntityManager em, Object[] values) {
+
+		StringBuilder select = new StringBuilder("select ").append(ALIAS);
+
+		for (String discriminator : discriminators) {
+			select.append(", case when ").append(discriminator).append(" then 1 else 0 end");
+		}
+
+		return bind(em.createQuery(select + from, Object[].class), values);
+	}
+
+	/**
+	 * Creates a {@link TypedQuery} counting the entities matching the given probe values.
+	 *
+	 * @param em must not be {@literal null}.
+	 * @param values the probe values as read by {@link ExampleProbe#read(Object)}, must not be {@literal null}.
+	 * @return
+	 */
+	public TypedQuery<Long> createCountQuery(EntityManager em, Object[] values) {
+		return bind(em.createQuery("select count(" + ALIAS + ")" + from, Long.class), values);
+	}
+
+	/**
+	 * Creates a {@link TypedQuery} selecting a constant for each entity matching the given probe values. Limited to a
+	 * single row, the query tells whether any entity matches without reading or hydrating entities.
+	 *
+	 * @param em must not be {@literal null}.
+	 * @param values the probe values as read by {@link ExampleProbe#read(Object)}, must not be {@literal null}.
+	 * @return
+	 */
+	public TypedQuery<Integer> createExistsQuery(EntityManager em, Object[] values) {
+		return bind(em.createQuery("select 1" + from, Integer.class), values).setMaxResults(1);
+	}
+
+	private <S> TypedQuery<S> bind(TypedQuery<S> query, Object[] values) {
+
+		for (Parameter parameter : parameters) {
+			query.setParameter(parameter.name, parameter.prepare(values[parameter.index]));
+		}
+
+		return query;
+	}
+
+	/**
+	 * A query parameter bound to a probe value applying the configured {@link StringMatcher} and case handling.
+	 */
+	static class Parameter {
+
+		private final String name;
+		private final int index;
+		private final StringMatcher stringMatcher;
+		private final boolean ignoreCase;
+
+		Parameter(String name, int index, StringMatcher stringMatcher, boolean ignoreCase) {
+
+			this.name = name;
+			this.index = index;
+			this.stringMatcher = stringMatcher;
+			this.ignoreCase = ignoreCase;
+		}
+
+		Object prepare(Object value) {
+
+			if (!(value instanceof String)) {
+				return value;
+			}
+
+			String string = ignoreCase ? value.toString().toLowerCase(Locale.ROOT) : value.toString();
+
+			switch (stringMatcher) {
+				case STARTING:
+					return string + "%";
+				case ENDING:
+					return "%" + string;
+				case CONTAINING:
+					return "%" + string + "%";
+				default:
+					return string;
+			}
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.metamodel.Metamodel;
+
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.util.Assert;
+
+import lombok.Value;
+
+/**
+ * Bounded, least-recently-used cache of {@link ExampleQuery} instances keyed by probe type, {@link ExampleMatcher} and
+ * the set of probe properties holding a value. Exposes hit and miss counts to monitor how well the query shapes used
+ * by the application are covered.
+ *
+ * @author agent
+ */
+public class ExampleQueryCache {
+
+	private final Map<ProbeKey, ExampleProbe> probes;
+	private final Map<QueryKey, ExampleQuery> queries;
+	private final int maxSize;
+	private final ExampleMatcherAnalyzer analyzer;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a new {@link ExampleQueryCache} holding at most the given number of queries.
+	 *
+	 * @param maxSize must be greater than zero.
+	 */
+	public ExampleQueryCache(int maxSize) {
+		this(maxSize, new ExampleMatcherAnalyzer(false));
+	}
+
+	/**
+	 * Creates a new {@link ExampleQueryCache} holding at most the given number of queries and analyzing the string
+	 * matches of new probe types and matchers with the given {@link ExampleMatcherAnalyzer}.
+	 *
+	 * @param maxSize must be greater than zero.
+	 * @param analyzer must not be {@literal null}.
+	 */
+	public ExampleQueryCache(int maxSize, ExampleMatcherAnalyzer analyzer) {
+
+		Assert.isTrue(maxSize > 0, "Maximum size must be greater than zero!");
+		Assert.notNull(analyzer, "ExampleMatcherAnalyzer must not be null!");
+
+		this.maxSize = maxSize;
+		this.analyzer = analyzer;
+		this.probes = leastRecentlyUsed(maxSize);
+		this.queries = leastRecentlyUsed(maxSize);
+	}
+
+	/**
+	 * Returns the cached {@link ExampleProbe} for the given probe type and {@link ExampleMatcher} or resolves it.
+	 *
+	 * @param probeType must not be {@literal null}.
+	 * @param matcher must not be {@literal null}.
+	 * @param metamodel must not be {@literal null}.
+	 * @return {@literal null} if the probe type cannot be queried through an {@link ExampleQuery}.
+	 */
+	ExampleProbe getProbe(Class<?> probeType, ExampleMatcher matcher, Metamodel metamodel) {
+
+		ProbeKey key = new ProbeKey(probeType, matcher);
+
+		synchronized (probes) {
+
+			if (probes.containsKey(key)) {
+				return probes.get(key);
+			}
+
+			ExampleProbe probe = ExampleProbe.of(probeType, matcher, metamodel, analyzer);
+			probes.put(key, probe);
+
+			return probe;
+		}
+	}
+
+	/**
+	 * Returns the cached {@link ExampleQuery} for the given {@link ExampleProbe} and shape or compiles it.
+	 *
+	 * @param probe must not be {@literal null}.
+	 * @param shape must not be {@literal null}.
+	 * @return
+	 */
+	ExampleQuery getQuery(ExampleProbe probe, BitSet shape) {
+		return getQuery(probe, shape, 1);
+	}
+
+	/**
+	 * Returns the cached {@link ExampleQuery} matching any of the given number of probes of the given shape or compiles
+	 * it.
+	 *
+	 * @param probe must not be {@literal null}.
+	 * @param shape must not be {@literal null}.
+	 * @param probes must be greater than zero.
+	 * @return
+	 * @see ExampleProbe#compile(BitSet, int)
+	 */
+	ExampleQuery getQuery(ExampleProbe probe, BitSet shape, int probes) {
+
+		QueryKey key = new QueryKey(probe.getProbeType(), probe.getMatcher(), shape, probes);
+
+		synchronized (queries) {
+
+			ExampleQuery query = queries.get(key);
+
+			if (query != null) {
+				hits.incrementAndGet();
+				return query;
+			}
+
+			misses.incrementAndGet();
+			query = probe.compile(shape, probes);
+			queries.put(key, query);
+
+			return query;
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the ratio of cache hits to all lookups or {@literal 0} if there were no lookups yet.
+	 *
+	 * @return
+	 */
+	public double getHitRatio() {
+
+		long hits = getHitCount();
+		long lookups = hits + getMissCount();
+
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+
+		synchronized (queries) {
+			return queries.size();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static <K, V> Map<K, V> leastRecentlyUsed(int maxSize) {
+
+		return new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	@Value
+	private static class ProbeKey {
+
+		Class<?> probeType;
+		ExampleMatcher matcher;
+	}
+
+	@Value
+	private static class QueryKey {
+
+		Class<?> probeType;
+		ExampleMatcher matcher;
+		BitSet shape;
+		int probes;
+	}
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.provider.PersistenceProvider;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import lombok.Value;
+
+/**
+ * Repository base class executing Query-by-Example queries through {@link ExampleQuery} instances cached in an
+ * {@link ExampleQueryCache}. Probes of a known shape only have their values bound instead of being turned into a new
+ * criteria predicate tree. Probe types the cache cannot handle fall back to {@link SimpleJpaRepository}. Also
+ * implements {@link StreamingQueryByExampleExecutor}, {@link BatchQueryByExampleExecutor} and
+ * {@link ProjectingQueryByExampleExecutor} for repositories declaring them.
+ *
+ * @author agent
+ */
+public class ExampleQueryJpaRepository<T, ID extends Serializable> extends SimpleJpaRepository<T, ID>
+		implements StreamingQueryByExampleExecutor<T>, BatchQueryByExampleExecutor<T>, ProjectingQueryByExampleExecutor<T> {
+
+	private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+	private static final int STREAM_FETCH_SIZE = 1000;
+	private static final int EXAMPLE_BATCH_SIZE = 100;
+
+	private final EntityManager em;
+	private final Map<Class<?>, ExampleProjection<?>> projections = new ConcurrentHashMap<>();
+	private ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+	private ExampleQueryCache exampleQueryCache;
+
+	/**
+	 * Creates a new {@link ExampleQueryJpaRepository} for the given {@link JpaEntityInformation} and
+	 * {@link EntityManager}.
+	 *
+	 * @param entityInformation must not be {@literal null}.
+	 * @param em must not be {@literal null}.
+	 */
+	public ExampleQueryJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager em) {
+
+		super(entityInformation, em);
+
+		this.em = em;
+	}
+
+	/**
+	 * Configures the {@link ExampleQueryCache} to use. Without a cache, all Query-by-Example queries are executed by
+	 * {@link SimpleJpaRepository}.
+	 *
+	 * @param exampleQueryCache can be {@literal null}.
+	 */
+	public void setExampleQueryCache(ExampleQueryCache exampleQueryCache) {
+		this.exampleQueryCache = exampleQueryCache;
+	}
+
+	/**
+	 * Configures the {@link ProjectionFactory} to create projection interfaces with. Defaults to a
+	 * {@link SpelAwareProxyProjectionFactory} that can neither resolve bean references in SpEL expressions nor use the
+	 * application's {@link ClassLoader}.
+	 *
+	 * @param projectionFactory must not be {@literal null}.
+	 */
+	public void setProjectionFactory(ProjectionFactory projectionFactory) {
+
+		Assert.notNull(projectionFactory, "ProjectionFactory must not be null!");
+
+		this.projectionFactory = projectionFactory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#findOne(org.springframework.data.domain.Example)
+	 */
+	@Override
+	public <S extends T> S findOne(Example<S> example) {
+
+		return execute(example, (query, values) -> {
+
+			try {
+				return query.createQuery(em, example.getProbeType(), values, null).getSingleResult();
+			} catch (NoResultException o_O) {
+				return null;
+			}
+
+		}, () -> super.findOne(example));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#count(org.springframework.data.domain.Example)
+	 */
+	@Override
+	public <S extends T> long count(Example<S> example) {
+
+		return execute(example, (query, values) -> query.createCountQuery(em, values).getSingleResult(),
+				() -> super.count(example));
+	}
+
+	/**
+	 * Checks for a single matching row instead of reading all matching entities as {@link SimpleJpaRepository} does.
+	 *
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#exists(org.springframework.data.domain.Example)
+	 */
+	@Override
+	public <S extends T> boolean exists(Example<S> example) {
+
+		return execute(example, (query, values) -> !query.createExistsQuery(em, values).getResultList().isEmpty(),
+				() -> !getQuery(example, null).setMaxResults(1).getResultList().isEmpty());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#findAll(org.springframework.data.domain.Example)
+	 */
+	@Override
+	public <S extends T> List<S> findAll(Example<S> example) {
+		return findAll(example, (Sort) null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#findAll(org.springframework.data.domain.Example, org.springframework.data.domain.Sort)
+	 */
+	@Override
+	public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+
+		return execute(example,
+				(query, values) -> query.createQuery(em, example.getProbeType(), values, sort).getResultList(),
+				() -> super.findAll(example, sort));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.SimpleJpaRepository#findAll(org.springframework.data.domain.Example, org.springframework.data.domain.Pageable)
+	 */
+	@Override
+	public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+
+		if (pageable == null) {
+			return new PageImpl<>(findAll(example));
+		}
+
+		return execute(example, (query, values) -> {
+
+			List<S> content = query.createQuery(em, example.getProbeType(), values, pageable.getSort()) //
+					.setFirstResult(pageable.getOffset()) //
+					.setMaxResults(pageable.getPageSize()) //
+					.getResultList();
+
+			// A partial page (that isn't past the end) determines the total without counting
+			long total = !content.isEmpty() && content.size() < pageable.getPageSize() //
+					? pageable.getOffset() + content.size() //
+					: query.createCountQuery(em, values).getSingleResult();
+
+			return new PageImpl<>(content, pageable, total);
+
+		}, () -> super.findAll(example, pageable));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.StreamingQueryByExampleExecutor#streamAll(org.springframework.data.domain.Example)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	@Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+	public <S extends T> Stream<S> streamAll(Example<S> example) {
+
+		TypedQuery<S> query = getQuery(example, null);
+		query.setHint(FETCH_SIZE_HINT, STREAM_FETCH_SIZE);
+
+		return (Stream<S>) StreamUtils.createStreamFromIterator(
+				PersistenceProvider.fromEntityManager(em).executeQueryWithResultStream(query));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.StreamingQueryByExampleExecutor#findSlice(org.springframework.data.domain.Example, org.springframework.data.domain.Pageable)
+	 */
+	@Override
+	public <S extends T> Slice<S> findSlice(Example<S> example, Pageable pageable) {
+
+		if (pageable == null) {
+			return new SliceImpl<>(findAll(example));
+		}
+
+		List<S> content = getQuery(example, pageable.getSort()) //
+				.setFirstResult(pageable.getOffset()) //
+				.setMaxResults(pageable.getPageSize() + 1) //
+				.getResultList();
+
+		boolean hasNext = content.size() > pageable.getPageSize();
+
+		return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.BatchQueryByExampleExecutor#findAllByExamples(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <S extends T> Map<Example<S>, List<S>> findAllByExamples(Collection<Example<S>> examples) {
+
+		Assert.notNull(examples, "Examples must not be null!");
+
+		Map<Example<S>, List<S>> result = new LinkedHashMap<>();
+		Map<Batch, List<Entry<Example<S>, Object[]>>> batches = new LinkedHashMap<>();
+
+		for (Example<S> example : examples) {
+
+			if (result.containsKey(example)) {
+				continue;
+			}
+
+			ExampleProbe probe = exampleQueryCache == null ? null
+					: exampleQueryCache.getProbe(example.getProbeType(), example.getMatcher(), em.getMetamodel());
+
+			if (probe == null) {
+				result.put(example, findAll(example));
+				continue;
+			}
+
+			Object[] values = probe.read(example.getProbe());
+
+			result.put(example, new ArrayList<>());
+			batches.computeIfAbsent(new Batch(probe, probe.shape(values)), it -> new ArrayList<>())
+					.add(new SimpleImmutableEntry<>(example, values));
+		}
+
+		batches.forEach((batch, members) -> {
+
+			for (int i = 0; i < members.size(); i += EXAMPLE_BATCH_SIZE) {
+
+				List<Entry<Example<S>, Object[]>> chunk = members.subList(i,
+						Math.min(i + EXAMPLE_BATCH_SIZE, members.size()));
+				List<Object> values = new ArrayList<>();
+
+				chunk.forEach(member -> Collections.addAll(values, member.getValue()));
+
+				ExampleQuery query = exampleQueryCache.getQuery(batch.probe, batch.shape, chunk.size());
+
+				for (Object[] row : query.createBatchQuery(em, values.toArray()).getResultList()) {
+
+					// The entity is followed by a discriminator per member telling whether it matches
+					for (int j = 0; j < chunk.size(); j++) {
+						if (((Number) row[j + 1]).intValue() == 1) {
+							result.get(chunk.get(j).getKey()).add((S) row[0]);
+						}
+					}
+				}
+			}
+		});
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.ProjectingQueryByExampleExecutor#findAllProjected(org.springframework.data.domain.Example, java.lang.Class)
+	 */
+	@Override
+	public <S extends T, P> List<P> findAllProjected(Example<S> example, Class<P> projection) {
+		return findAllProjected(example, projection, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see example.ProjectingQueryByExampleExecutor#findAllProjected(org.springframework.data.domain.Example, java.lang.Class, org.springframework.data.domain.Sort)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <S extends T, P> List<P> findAllProjected(Example<S> example, Class<P> projection, Sort sort) {
+
+		Assert.notNull(projection, "Projection type must not be null!");
+
+		ExampleProjection<P> plan = (ExampleProjection<P>) projections.computeIfAbsent(projection,
+				it -> ExampleProjection.of(it, getDomainClass(), projectionFactory));
+
+		List<?> rows = !plan.isNarrowing() ? findAll(example, sort)
+				: execute(example,
+						(query, values) -> query.createTupleQuery(em, plan.getProperties(), values, sort).getResultList(),
+						() -> getTupleQuery(example, plan.getProperties(), sort).getResultList());
+
+		List<P> result = new ArrayList<>(rows.size());
+
+		for (Object row : rows) {
+			result.add(plan.convert(row));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a {@link TypedQuery} selecting the given properties of the entities matching the given {@link Example}
+	 * through a criteria query.
+	 */
+	private <S extends T> TypedQuery<Tuple> getTupleQuery(Example<S> example, List<String> properties, Sort sort) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<S> root = query.from(example.getProbeType());
+		List<Selection<?>> selections = new ArrayList<>(properties.size());
+
+		for (String property : properties) {
+			selections.add(root.get(property).alias(property));
+		}
+
+		query.multiselect(selections);
+
+		Predicate predicate = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+
+		if (predicate != null) {
+			query.where(predicate);
+		}
+
+		if (sort != null) {
+			query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		}
+
+		return em.createQuery(query);
+	}
+
+	/**
+	 * Returns a {@link TypedQuery} selecting the entities matching the given {@link Example}, using the cached
+	 * {@link ExampleQuery} if possible.
+	 */
+	private <S extends T> TypedQuery<S> getQuery(Example<S> example, Sort sort) {
+
+		return execute(example, (query, values) -> query.createQuery(em, example.getProbeType(), values, sort),
+				() -> getQuery((root, query, cb) -> QueryByExamplePredicateBuilder.getPredicate(root, cb, example),
+						example.getProbeType(), sort));
+	}
+
+	/**
+	 * Executes the given callback with the cached {@link ExampleQuery} for the given {@link Example} and the values read
+	 * from its probe or the given fallback if the example cannot be executed through an {@link ExampleQuery}.
+	 */
+	private <S extends T, R> R execute(Example<S> example, BiFunction<ExampleQuery, Object[], R> callback,
+			Supplier<R> fallback) {
+
+		ExampleProbe probe = exampleQueryCache == null ? null
+				: exampleQueryCache.getProbe(example.getProbeType(), example.getMatcher(), em.getMetamodel());
+
+		if (probe == null) {
+			return fallback.get();
+		}
+
+		Object[] values = probe.read(example.getProbe());
+
+		return callback.apply(exampleQueryCache.getQuery(probe, probe.shape(values)), values);
+	}
+
+	/**
+	 * Examples sharing an {@link ExampleProbe} and shape that can be queried together.
+	 */
+	@Value
+	private static class Batch {
+
+		ExampleProbe probe;
+		BitSet shape;
+	}
+}
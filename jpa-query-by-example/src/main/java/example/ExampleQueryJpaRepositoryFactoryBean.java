@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.Serializable;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+/**
+ * {@link JpaRepositoryFactoryBean} creating {@link ExampleQueryJpaRepository} instances sharing the
+ * {@link ExampleQueryCache} of the application context and a {@link SpelAwareProxyProjectionFactory} aware of its
+ * {@link BeanFactory} and {@link ClassLoader}.
+ *
+ * @author agent
+ */
+public class ExampleQueryJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable>
+		extends JpaRepositoryFactoryBean<T, S, ID> {
+
+	private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+	private ExampleQueryCache exampleQueryCache;
+
+	@Autowired
+	public void setExampleQueryCache(ExampleQueryCache exampleQueryCache) {
+		this.exampleQueryCache = exampleQueryCache;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport#setBeanClassLoader(java.lang.ClassLoader)
+	 */
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+
+		super.setBeanClassLoader(classLoader);
+
+		this.projectionFactory.setBeanClassLoader(classLoader);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+
+		super.setBeanFactory(beanFactory);
+
+		this.projectionFactory.setBeanFactory(beanFactory);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean#createRepositoryFactory(javax.persistence.EntityManager)
+	 */
+	@Override
+	protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+
+		return new JpaRepositoryFactory(entityManager) {
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactory#getTargetRepository(org.springframework.data.repository.core.RepositoryInformation, javax.persistence.EntityManager)
+			 */
+			@Override
+			protected <E, I extends Serializable> SimpleJpaRepository<?, ?> getTargetRepository(
+					RepositoryInformation information, EntityManager entityManager) {
+
+				SimpleJpaRepository<?, ?> repository = super.getTargetRepository(information, entityManager);
+
+				ExampleQueryJpaRepository<?, ?> exampleQueryRepository = (ExampleQueryJpaRepository<?, ?>) repository;
+
+				exampleQueryRepository.setExampleQueryCache(exampleQueryCache);
+				exampleQueryRepository.setProjectionFactory(projectionFactory);
+
+				return repository;
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactory#getRepositoryBaseClass(org.springframework.data.repository.core.RepositoryMetadata)
+			 */
+			@Override
+			protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+				return ExampleQueryJpaRepository.class;
+			}
+		};
+	}
+}
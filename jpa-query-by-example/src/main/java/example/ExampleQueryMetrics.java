@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link PublicMetrics} exposing the hit and miss counts as well as the hit ratio of the {@link ExampleQueryCache} and
+ * the string matches found by the {@link ExampleMatcherAnalyzer}.
+ *
+ * @author agent
+ */
+@RequiredArgsConstructor
+public class ExampleQueryMetrics implements PublicMetrics {
+
+	private final ExampleQueryCache queryCache;
+	private final ExampleMatcherAnalyzer analyzer;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.boot.actuate.endpoint.PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		List<Metric<?>> metrics = new ArrayList<>();
+
+		metrics.add(new Metric<Long>("query-by-example.cache.hits", queryCache.getHitCount()));
+		metrics.add(new Metric<Long>("query-by-example.cache.misses", queryCache.getMissCount()));
+		metrics.add(new Metric<Double>("query-by-example.cache.hit-ratio", queryCache.getHitRatio()));
+		metrics.add(new Metric<Integer>("query-by-example.cache.size", queryCache.size()));
+
+		metrics.add(new Metric<Long>("query-by-example.matchers.non-sargable", analyzer.getNonSargableCount()));
+		metrics.add(new Metric<Long>("query-by-example.matchers.rewritten", analyzer.getRewrittenCount()));
+
+		return metrics;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.List;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Executes Query-by-Example probes returning projections instead of entities. Closed projection interfaces and DTOs
+ * only select the properties they expose. Implemented by {@link ExampleQueryJpaRepository}.
+ *
+ * @author agent
+ */
+public interface ProjectingQueryByExampleExecutor<T> {
+
+	/**
+	 * Returns the entities matching the given {@link Example} projected into the given type.
+	 *
+	 * @param example must not be {@literal null}.
+	 * @param projection a projection interface or DTO class, must not be {@literal null}.
+	 * @return
+	 */
+	<S extends T, P> List<P> findAllProjected(Example<S> example, Class<P> projection);
+
+	/**
+	 * Returns the entities matching the given {@link Example} projected into the given type in the given order.
+	 *
+	 * @param example must not be {@literal null}.
+	 * @param projection a projection interface or DTO class, must not be {@literal null}.
+	 * @param sort can be {@literal null}.
+	 * @return
+	 */
+	<S extends T, P> List<P> findAllProjected(Example<S> example, Class<P> projection, Sort sort);
+}
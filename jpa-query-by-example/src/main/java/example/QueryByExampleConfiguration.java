@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Configures the repositories to execute Query-by-Example queries through the {@link ExampleQueryCache} and to check
+ * the matchers used against the declared indexes.
+ *
+ * @author agent
+ */
+@Configuration
+@EnableJpaRepositories(repositoryFactoryBeanClass = ExampleQueryJpaRepositoryFactoryBean.class)
+public class QueryByExampleConfiguration {
+
+	/**
+	 * Checks string matches on indexed properties. {@code CONTAINING} matches are only rewritten to {@code STARTING}
+	 * matches if explicitly enabled as this changes the query results.
+	 */
+	@Bean
+	public ExampleMatcherAnalyzer exampleMatcherAnalyzer(
+			@Value("${query-by-example.rewrite-containing-matches:false}") boolean rewriteContaining) {
+		return new ExampleMatcherAnalyzer(rewriteContaining);
+	}
+
+	@Bean
+	public ExampleQueryCache exampleQueryCache(@Value("${query-by-example.cache.max-size:64}") int maxSize,
+			ExampleMatcherAnalyzer exampleMatcherAnalyzer) {
+		return new ExampleQueryCache(maxSize, exampleMatcherAnalyzer);
+	}
+
+	@Bean
+	public ExampleQueryMetrics exampleQueryMetrics(ExampleQueryCache exampleQueryCache,
+			ExampleMatcherAnalyzer exampleMatcherAnalyzer) {
+		return new ExampleQueryMetrics(exampleQueryCache, exampleMatcherAnalyzer);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.QueryByExampleExecutor;
+
+/**
+ * Extension of {@link QueryByExampleExecutor} for large results. Implemented by {@link ExampleQueryJpaRepository}.
+ *
+ * @author agent
+ */
+public interface StreamingQueryByExampleExecutor<T> {
+
+	/**
+	 * Returns a {@link Stream} of all entities matching the given {@link Example}, read through a database cursor
+	 * instead of loading all results upfront. Requires a surrounding transaction and the {@link Stream} needs to be
+	 * closed after use.
+	 *
+	 * @param example must not be {@literal null}.
+	 * @return
+	 */
+	<S extends T> Stream<S> streamAll(Example<S> example);
+
+	/**
+	 * Returns a {@link Slice} of the entities matching the given {@link Example}. Unlike
+	 * {@link QueryByExampleExecutor#findAll(Example, Pageable)}, no count query is issued. The next slice is detected by
+	 * reading a single additional row.
+	 *
+	 * @param example must not be {@literal null}.
+	 * @param pageable can be {@literal null} to return all matching entities in a single {@link Slice}.
+	 * @return
+	 */
+	<S extends T> Slice<S> findSlice(Example<S> example, Pageable pageable);
+}
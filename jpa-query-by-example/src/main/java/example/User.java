@@ -22,6 +22,8 @@ import lombok.RequiredArgsConstructor;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 /**
  * Sample user class.
@@ -30,6 +32,8 @@ import javax.persistence.Id;
  * @author Oliver Gierke
  */
 @Entity
+@Table(indexes = { @Index(columnList = "lastname"), @Index(columnList = "firstname"),
+		@Index(columnList = "dtype, lastname") })
 @Data
 @NoArgsConstructor(force = true)
 @RequiredArgsConstructor
@@ -20,8 +20,13 @@ import org.springframework.data.repository.query.QueryByExampleExecutor;
 
 /**
  * Simple repository interface for {@link User} instances. The interface implements {@link QueryByExampleExecutor} and
- * allows execution of methods accepting {@link org.springframework.data.domain.Example}.
+ * allows execution of methods accepting {@link org.springframework.data.domain.Example}. Large results can be streamed
+ * or read in slices without a count query through {@link StreamingQueryByExampleExecutor}. Many examples can be
+ * queried at once through {@link BatchQueryByExampleExecutor}. {@link ProjectingQueryByExampleExecutor} selects only the
+ * properties a projection interface or DTO exposes.
  *
  * @author Mark Paluch
  */
-public interface UserRepository extends CrudRepository<User, Long>, QueryByExampleExecutor<User> {}
+public interface UserRepository
+		extends CrudRepository<User, Long>, QueryByExampleExecutor<User>, StreamingQueryByExampleExecutor<User>,
+		BatchQueryByExampleExecutor<User>, ProjectingQueryByExampleExecutor<User> {}
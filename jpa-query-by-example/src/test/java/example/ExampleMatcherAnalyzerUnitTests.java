@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.junit.Test;
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Unit tests for {@link ExampleMatcherAnalyzer}.
+ *
+ * @author agent
+ */
+public class ExampleMatcherAnalyzerUnitTests {
+
+	static final Field LASTNAME = ReflectionUtils.findField(User.class, "lastname");
+	static final Field AGE = ReflectionUtils.findField(User.class, "age");
+
+	@Test
+	public void countsNonSargableMatchOncePerProperty() {
+
+		ExampleMatcherAnalyzer analyzer = new ExampleMatcherAnalyzer(false);
+
+		assertThat(analyzer.analyze(User.class, LASTNAME, StringMatcher.CONTAINING, true), is(StringMatcher.CONTAINING));
+		assertThat(analyzer.getNonSargableCount(), is(1L));
+
+		analyzer.analyze(User.class, LASTNAME, StringMatcher.ENDING, false);
+		analyzer.analyze(User.class, LASTNAME, StringMatcher.STARTING, true);
+
+		assertThat(analyzer.getNonSargableCount(), is(3L));
+	}
+
+	@Test
+	public void ignoresSargableAndUnindexedMatches() {
+
+		ExampleMatcherAnalyzer analyzer = new ExampleMatcherAnalyzer(false);
+
+		analyzer.analyze(User.class, LASTNAME, StringMatcher.STARTING, false);
+		analyzer.analyze(User.class, LASTNAME, StringMatcher.EXACT, false);
+		analyzer.analyze(User.class, AGE, StringMatcher.CONTAINING, true);
+
+		assertThat(analyzer.getNonSargableCount(), is(0L));
+	}
+
+	@Test
+	public void rewritesContainingToStartingMatchesOnIndexedProperties() {
+
+		ExampleMatcherAnalyzer analyzer = new ExampleMatcherAnalyzer(true);
+
+		// "hrad" is contained in "Schrader" but a STARTING match no longer finds it
+		assertThat(analyzer.analyze(User.class, LASTNAME, StringMatcher.CONTAINING, false), is(StringMatcher.STARTING));
+		assertThat(analyzer.getRewrittenCount(), is(1L));
+		assertThat(analyzer.getNonSargableCount(), is(0L));
+
+		assertThat(analyzer.analyze(User.class, LASTNAME, StringMatcher.ENDING, false), is(StringMatcher.ENDING));
+		assertThat(analyzer.analyze(User.class, AGE, StringMatcher.CONTAINING, false), is(StringMatcher.CONTAINING));
+		assertThat(analyzer.getRewrittenCount(), is(1L));
+	}
+
+	@Test
+	public void countsRewrittenCaseInsensitiveMatchAsNonSargable() {
+
+		ExampleMatcherAnalyzer analyzer = new ExampleMatcherAnalyzer(true);
+
+		assertThat(analyzer.analyze(User.class, LASTNAME, StringMatcher.CONTAINING, true), is(StringMatcher.STARTING));
+		assertThat(analyzer.getNonSargableCount(), is(1L));
+	}
+
+	@Test
+	public void considersDiscriminatorLedIndexForSubtypesOnly() {
+
+		Field model = ReflectionUtils.findField(Vehicle.class, "model");
+		ExampleMatcherAnalyzer analyzer = new ExampleMatcherAnalyzer(false);
+
+		// Queries for Car are restricted by the discriminator and can use the (dtype, model) index
+		analyzer.analyze(Car.class, model, StringMatcher.ENDING, false);
+		assertThat(analyzer.getNonSargableCount(), is(1L));
+
+		// Queries for the root type aren't, so the index doesn't apply
+		analyzer.analyze(Vehicle.class, model, StringMatcher.ENDING, false);
+		assertThat(analyzer.getNonSargableCount(), is(1L));
+	}
+
+	@Entity(name = "Vehicle")
+	@Table(indexes = @Index(columnList = "dtype, model"))
+	static class Vehicle {
+
+		@Id Long id;
+		String model;
+	}
+
+	@Entity(name = "Car")
+	static class Car extends Vehicle {}
+}
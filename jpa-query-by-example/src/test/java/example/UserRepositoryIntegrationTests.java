@@ -21,13 +21,28 @@ import static org.springframework.data.domain.ExampleMatcher.*;
 import static org.springframework.data.domain.ExampleMatcher.GenericPropertyMatchers.*;
 import static org.springframework.data.domain.ExampleMatcher.GenericPropertyMatchers.startsWith;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +59,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserRepositoryIntegrationTests {
 
 	@Autowired UserRepository repository;
+	@Autowired ExampleQueryCache queryCache;
+	@Autowired ExampleMatcherAnalyzer analyzer;
 
 	User skyler, walter, flynn, marie, hank;
 
@@ -67,6 +84,28 @@ public class UserRepositoryIntegrationTests {
 		assertThat(repository.count(example), is(3L));
 	}
 
+	@Test
+	public void countsByExampleThroughQuerySharedWithSortedLookup() {
+
+		ExampleMatcher matcher = matching().//
+				withIgnorePaths("id", "age").//
+				withMatcher("lastname", ignoreCase());
+
+		assertThat(repository.findAll(Example.of(new User(null, "white", null), matcher), new Sort(Direction.DESC, "age")),
+				is(Arrays.asList(walter, skyler, flynn)));
+
+		long hits = queryCache.getHitCount();
+		long misses = queryCache.getMissCount();
+
+		// Reuses the query of the sorted lookup, counting must not carry over its ordering
+		assertThat(repository.count(Example.of(new User(null, "WHITE", null), matcher)), is(3L));
+		assertThat(repository.count(Example.of(new User(null, "schrader", null), matcher)), is(2L));
+		assertThat(repository.count(Example.of(new User(null, "Pinkman", null), matcher)), is(0L));
+
+		assertThat(queryCache.getHitCount(), is(hits + 3));
+		assertThat(queryCache.getMissCount(), is(misses));
+	}
+
 	@Test
 	public void ignorePropertiesAndMatchByAge() {
 
@@ -117,4 +156,184 @@ public class UserRepositoryIntegrationTests {
 
 		assertThat(repository.findAll(example), hasItems(walter));
 	}
+
+	@Test
+	public void reusesCachedQueryForProbesOfSameShape() {
+
+		ExampleMatcher matcher = matching().withIgnorePaths("age");
+
+		repository.findAll(Example.of(new User(null, "White", null), matcher));
+
+		long hits = queryCache.getHitCount();
+		long misses = queryCache.getMissCount();
+
+		assertThat(repository.findAll(Example.of(new User(null, "Schrader", null), matcher)), hasItems(marie, hank));
+		assertThat(queryCache.getHitCount(), is(hits + 1));
+		assertThat(queryCache.getMissCount(), is(misses));
+
+		assertThat(repository.findAll(Example.of(new User("Marie", "Schrader", null), matcher)), hasItems(marie));
+		assertThat(queryCache.getMissCount(), is(misses + 1));
+	}
+
+	@Test
+	public void streamsByExample() {
+
+		try (Stream<User> users = repository.streamAll(Example.of(new User(null, "White", null)))) {
+			assertThat(users.collect(Collectors.toList()), hasItems(skyler, walter, flynn));
+		}
+	}
+
+	@Test
+	public void slicesByExampleWithoutCounting() {
+
+		Example<User> example = Example.of(new User(null, "White", null));
+
+		Slice<User> first = repository.findSlice(example, new PageRequest(0, 2, Direction.ASC, "age"));
+
+		assertThat(first, is(not(instanceOf(Page.class))));
+		assertThat(first.getContent(), is(Arrays.asList(flynn, skyler)));
+		assertThat(first.hasNext(), is(true));
+
+		Slice<User> second = repository.findSlice(example, first.nextPageable());
+
+		assertThat(second.getContent(), is(Arrays.asList(walter)));
+		assertThat(second.hasNext(), is(false));
+	}
+
+	@Test
+	public void slicesAllByExampleWithoutPageable() {
+
+		Slice<User> slice = repository.findSlice(Example.of(new User(null, "White", null)), null);
+
+		assertThat(slice.getContent(), hasItems(skyler, walter, flynn));
+		assertThat(slice.getNumberOfElements(), is(3));
+		assertThat(slice.hasNext(), is(false));
+	}
+
+	@Test
+	public void reportsNonSargableMatchOnIndexedProperty() {
+
+		long nonSargable = analyzer.getNonSargableCount();
+
+		Example<User> example = Example.of(new User(null, "hrad", null), matching().//
+				withIgnorePaths("id", "age").//
+				withMatcher("lastname", contains()));
+
+		assertThat(repository.findAll(example), hasItems(marie, hank));
+		assertThat(analyzer.getNonSargableCount(), is(nonSargable + 1));
+	}
+
+	@Test
+	public void findsByManyExamplesAtOnce() {
+
+		ExampleMatcher matcher = matching().withIgnorePaths("age");
+		Example<User> whites = Example.of(new User(null, "White", null), matcher);
+		Example<User> schraders = Example.of(new User(null, "Schrader", null), matcher);
+		Example<User> pinkmans = Example.of(new User(null, "Pinkman", null), matcher);
+		Example<User> walters = Example.of(new User("Walter", null, null), matching().withIgnorePaths("age")//
+				.withMatcher("firstname", startsWith()));
+
+		long misses = queryCache.getMissCount();
+
+		Map<Example<User>, List<User>> result = repository
+				.findAllByExamples(Arrays.asList(whites, schraders, pinkmans, walters));
+
+		assertThat(result.keySet(), hasItems(whites, schraders, pinkmans, walters));
+		assertThat(result.get(whites), hasItems(skyler, walter, flynn));
+		assertThat(result.get(schraders), is(Arrays.asList(marie, hank)));
+		assertThat(result.get(pinkmans).isEmpty(), is(true));
+		assertThat(result.get(walters), hasItems(walter, flynn));
+		assertThat(result.get(walters).size(), is(2));
+
+		// One query for the three last name probes and one for the first name probe
+		assertThat(queryCache.getMissCount(), is(misses + 2));
+	}
+
+	@Test
+	public void assignsResultsToOverlappingExamples() {
+
+		ExampleMatcher matcher = matching().withIgnorePaths("age").withIgnoreCase("lastname");
+		Example<User> upper = Example.of(new User(null, "WHITE", null), matcher);
+		Example<User> lower = Example.of(new User(null, "white", null), matcher);
+		Example<User> everyone = Example.of(new User(null, null, null), matcher);
+
+		Map<Example<User>, List<User>> result = repository.findAllByExamples(Arrays.asList(upper, lower, everyone));
+
+		assertThat(result.get(upper), hasItems(skyler, walter, flynn));
+		assertThat(result.get(upper).size(), is(3));
+		assertThat(result.get(lower), is(result.get(upper)));
+		assertThat(result.get(everyone).size(), is(5));
+	}
+
+	@Test
+	public void checksExistenceByExample() {
+
+		assertThat(repository.exists(Example.of(new User(null, "White", null))), is(true));
+		assertThat(repository.exists(Example.of(new User(null, "Pinkman", null))), is(false));
+	}
+
+	@Test
+	public void pagesByExample() {
+
+		Example<User> example = Example.of(new User(null, "White", null));
+
+		Page<User> first = repository.findAll(example, new PageRequest(0, 2, Direction.ASC, "age"));
+
+		assertThat(first.getContent(), is(Arrays.asList(flynn, skyler)));
+		assertThat(first.getTotalElements(), is(3L));
+
+		Page<User> last = repository.findAll(example, first.nextPageable());
+
+		assertThat(last.getContent(), is(Arrays.asList(walter)));
+		assertThat(last.getTotalElements(), is(3L));
+	}
+
+	@Test
+	public void projectsByExampleIntoInterface() {
+
+		List<UserSummary> result = repository.findAllProjected(Example.of(new User(null, "Schrader", null)),
+				UserSummary.class, new Sort("age"));
+
+		assertThat(result.stream().map(UserSummary::getFirstname).collect(Collectors.toList()),
+				is(Arrays.asList("Marie", "Hank")));
+	}
+
+	@Test
+	public void projectsByExampleIntoDto() {
+
+		List<UserDto> result = repository.findAllProjected(Example.of(new User("Hank", null, null)), UserDto.class);
+
+		assertThat(result, is(Arrays.asList(new UserDto("Hank", "Schrader"))));
+	}
+
+	@Test
+	public void resolvesBeanReferencesInOpenProjections() {
+
+		List<UserGreeting> result = repository.findAllProjected(Example.of(new User("Hank", null, null)),
+				UserGreeting.class);
+
+		assertThat(result.get(0).getGreeting(), is("Hello Hank"));
+	}
+
+	interface UserGreeting {
+
+		@Value("#{@greeter.greet(target)}")
+		String getGreeting();
+	}
+
+	static class Greeter {
+
+		public String greet(User user) {
+			return "Hello " + user.getFirstname();
+		}
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		Greeter greeter() {
+			return new Greeter();
+		}
+	}
 }
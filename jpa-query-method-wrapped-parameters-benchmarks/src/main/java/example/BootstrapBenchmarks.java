@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * JMH benchmark measuring the cold start of the application, i.e. the first bootstrap within a fresh JVM, with derived
+ * queries created from the metadata written by the {@code DerivedQueryProcessor} at build time and with method names
+ * parsed at startup.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+public class BootstrapBenchmarks {
+
+	/**
+	 * Whether to use the queries derived at build time.
+	 */
+	@Param({ "true", "false" }) boolean aot;
+
+	@Benchmark
+	public Object bootstrap() {
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class) //
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN", "derived-queries.aot.enabled=" + aot) //
+				.run()) {
+			return context.getBean(PersonRepository.class);
+		}
+	}
+}
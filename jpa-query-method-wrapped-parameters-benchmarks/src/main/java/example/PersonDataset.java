@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * JMH state bootstrapping the application against the embedded database and seeding it with {@link #size} persons
+ * spread across {@value #GENDERS} genders so that each query returns a small result and the benchmarks are dominated
+ * by the query method invocation rather than by reading results.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class PersonDataset {
+
+	static final int GENDERS = 100;
+
+	/**
+	 * The number of persons to seed the database with.
+	 */
+	@Param({ "1000" }) int size;
+
+	/**
+	 * Whether to unwrap wrapped parameters through the {@link UnwrappingRepositoryProxyPostProcessor} or to leave them to
+	 * Spring Data.
+	 */
+	@Param({ "true", "false" }) boolean unwrapping;
+
+	ConfigurableApplicationContext context;
+	PersonRepository persons;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(BenchmarkApplication.class) //
+				.properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+						"wrapped-parameters.unwrapping.enabled=" + unwrapping) //
+				.run();
+
+		this.persons = context.getBean(PersonRepository.class);
+
+		List<Person> seed = new ArrayList<>(size);
+
+		for (int i = 0; i < size; i++) {
+			seed.add(new Person("Firstname " + i, "Lastname " + i, "Gender " + i % GENDERS));
+		}
+
+		persons.save(seed);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+}
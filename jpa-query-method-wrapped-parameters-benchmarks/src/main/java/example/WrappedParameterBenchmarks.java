@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import scala.Option;
+
+/**
+ * JMH benchmarks comparing the {@code findByGender} overloads of {@link PersonRepository} taking a wrapped parameter
+ * with the plain {@link String} overload. The wrappers are created once so that only their unwrapping is measured.
+ *
+ * @author agent
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+public class WrappedParameterBenchmarks {
+
+	private static final String GENDER = "Gender 42";
+	private static final Optional<String> JDK8_OPTIONAL = Optional.of(GENDER);
+	private static final com.google.common.base.Optional<String> GUAVA_OPTIONAL = com.google.common.base.Optional
+			.of(GENDER);
+	private static final Option<String> SCALA_OPTION = Option.apply(GENDER);
+
+	@Benchmark
+	public Object plainString(PersonDataset dataset) {
+		return dataset.persons.findByGender(GENDER);
+	}
+
+	@Benchmark
+	public Object jdk8Optional(PersonDataset dataset) {
+		return dataset.persons.findByGender(JDK8_OPTIONAL);
+	}
+
+	@Benchmark
+	public Object guavaOptional(PersonDataset dataset) {
+		return dataset.persons.findByGender(GUAVA_OPTIONAL);
+	}
+
+	@Benchmark
+	public Object scalaOption(PersonDataset dataset) {
+		return dataset.persons.findByGender(SCALA_OPTION);
+	}
+}
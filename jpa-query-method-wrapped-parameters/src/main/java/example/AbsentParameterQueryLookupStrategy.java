@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.jpa.provider.PersistenceProvider;
+import org.springframework.data.jpa.repository.query.JpaQueryMethod;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.parser.PartTree;
+
+/**
+ * {@link QueryLookupStrategy} creating {@link DerivedJpaQuery} instances leaving out the predicates of absent
+ * arguments for query methods declaring {@link IgnoreWhenAbsent} parameters and delegating to the given strategy for
+ * all other methods. Uses the {@link DerivedQuery} parsed at build time if available.
+ * <p>
+ * {@link IgnoreWhenAbsent} requires a query {@link DerivedJpaQuery#isDerived derived} from the method name that
+ * {@link DerivedJpaQuery} {@link DerivedJpaQuery#supports supports}. Other methods declaring it are rejected at
+ * bootstrap instead of silently restricting absent arguments to {@literal null}.
+ *
+ * @author agent
+ */
+class AbsentParameterQueryLookupStrategy implements QueryLookupStrategy {
+
+	private final QueryLookupStrategy delegate;
+	private final Key key;
+	private final EntityManager em;
+	private final DerivedQueries queries;
+
+	/**
+	 * Creates a new {@link AbsentParameterQueryLookupStrategy}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param key the configured {@link Key}, can be {@literal null}.
+	 * @param em must not be {@literal null}.
+	 * @param queries must not be {@literal null}.
+	 */
+	AbsentParameterQueryLookupStrategy(QueryLookupStrategy delegate, Key key, EntityManager em,
+			DerivedQueries queries) {
+
+		this.delegate = delegate;
+		this.key = key;
+		this.em = em;
+		this.queries = queries;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.query.QueryLookupStrategy#resolveQuery(java.lang.reflect.Method, org.springframework.data.repository.core.RepositoryMetadata, org.springframework.data.projection.ProjectionFactory, org.springframework.data.repository.core.NamedQueries)
+	 */
+	@Override
+	public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata, ProjectionFactory factory,
+			NamedQueries namedQueries) {
+
+		boolean[] ignorable = new boolean[method.getParameterTypes().length];
+		boolean absentParameters = false;
+
+		for (int i = 0; i < ignorable.length; i++) {
+
+			ignorable[i] = new MethodParameter(method, i).hasParameterAnnotation(IgnoreWhenAbsent.class);
+			absentParameters |= ignorable[i];
+		}
+
+		if (!absentParameters) {
+			return delegate.resolveQuery(method, metadata, factory, namedQueries);
+		}
+
+		JpaQueryMethod queryMethod = new JpaQueryMethod(method, metadata, factory,
+				PersistenceProvider.fromEntityManager(em));
+
+		if (key == Key.USE_DECLARED_QUERY || !DerivedJpaQuery.isDerived(method, queryMethod, namedQueries)) {
+			throw unsupported(method, "a query derived from the method name");
+		}
+
+		DerivedQuery query = queries.get(method);
+
+		if (query == null) {
+
+			try {
+				query = DerivedQuery.from(new PartTree(method.getName(), queryMethod.getEntityInformation().getJavaType()));
+			} catch (IllegalStateException o_O) {
+				throw unsupported(method, "a query derived from the method name", o_O);
+			}
+		}
+
+		if (!DerivedJpaQuery.supports(queryMethod, query, ignorable)) {
+			throw unsupported(method, "no special parameters like Sort or Pageable and one parameter per predicate");
+		}
+
+		return new DerivedJpaQuery(queryMethod, query, ignorable, em);
+	}
+
+	private static IllegalStateException unsupported(Method method, String requirement) {
+		return unsupported(method, requirement, null);
+	}
+
+	private static IllegalStateException unsupported(Method method, String requirement, Exception cause) {
+		return new IllegalStateException(String.format("@%s on %s requires %s!", IgnoreWhenAbsent.class.getSimpleName(),
+				method, requirement), cause);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Adapts a single kind of asynchronous value declared as query method parameter to a {@link CompletableFuture}.
+ * Resolved once per parameter, see {@link AsyncParameters}.
+ *
+ * @author agent
+ */
+enum AsyncParameterAdapter {
+
+	COMPLETION_STAGE(CompletionStage.class) {
+
+		@Override
+		CompletableFuture<?> toFuture(Object value) {
+			return ((CompletionStage<?>) value).toCompletableFuture();
+		}
+	},
+
+	MONO(Mono.class) {
+
+		@Override
+		CompletableFuture<?> toFuture(Object value) {
+			return ((Mono<?>) value).toFuture();
+		}
+	};
+
+	private final Class<?> asyncType;
+
+	private AsyncParameterAdapter(Class<?> asyncType) {
+		this.asyncType = asyncType;
+	}
+
+	/**
+	 * Returns the {@link AsyncParameterAdapter} for the given parameter type.
+	 *
+	 * @param parameterType must not be {@literal null}.
+	 * @return the {@link AsyncParameterAdapter} or {@literal null} if the type is not a supported asynchronous type.
+	 */
+	static AsyncParameterAdapter forType(Class<?> parameterType) {
+
+		for (AsyncParameterAdapter adapter : values()) {
+			if (adapter.asyncType.isAssignableFrom(parameterType)) {
+				return adapter;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a {@link CompletableFuture} completing with the given value's result, {@literal null} if it completes
+	 * without a value.
+	 *
+	 * @param value must not be {@literal null}.
+	 * @return
+	 */
+	abstract CompletableFuture<?> toFuture(Object value);
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * The {@link AsyncParameterAdapter}s for the parameters of a query method returning a {@link CompletableFuture},
+ * resolved once at bootstrap. The query is executed on an {@link Executor} once all asynchronous arguments completed,
+ * without blocking the invoking thread.
+ *
+ * @author agent
+ */
+final class AsyncParameters {
+
+	private final AsyncParameterAdapter[] adapters;
+
+	private AsyncParameters(AsyncParameterAdapter[] adapters) {
+		this.adapters = adapters;
+	}
+
+	/**
+	 * Resolves the {@link AsyncParameters} of the given query method.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @return the {@link AsyncParameters} or {@literal null} if the method does not return a {@link CompletableFuture}.
+	 * @throws IllegalStateException if the method declares asynchronous parameters without returning a
+	 *           {@link CompletableFuture}.
+	 */
+	static AsyncParameters of(Method method) {
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		AsyncParameterAdapter[] adapters = new AsyncParameterAdapter[parameterTypes.length];
+		boolean async = false;
+
+		for (int i = 0; i < parameterTypes.length; i++) {
+
+			adapters[i] = AsyncParameterAdapter.forType(parameterTypes[i]);
+			async |= adapters[i] != null;
+		}
+
+		if (method.getReturnType().isAssignableFrom(CompletableFuture.class)
+				&& CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+			return new AsyncParameters(adapters);
+		}
+
+		if (async) {
+			throw new IllegalStateException(String.format(
+					"Query method %s declares asynchronous parameters and must return a CompletableFuture!", method));
+		}
+
+		return null;
+	}
+
+	/**
+	 * Proceeds with the given {@link MethodInvocation} on the given {@link Executor} as soon as all asynchronous
+	 * arguments completed, replacing them with their results.
+	 *
+	 * @param invocation must not be {@literal null}.
+	 * @param executor must not be {@literal null}.
+	 * @return a {@link CompletableFuture} completing with the query result or the exception raised by any of the
+	 *         arguments or the query.
+	 */
+	@SuppressWarnings("unchecked")
+	CompletableFuture<Object> proceed(MethodInvocation invocation, Executor executor) {
+
+		Object[] arguments = invocation.getArguments();
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[adapters.length];
+
+		for (int i = 0; i < adapters.length; i++) {
+			futures[i] = adapters[i] == null || arguments[i] == null ? CompletableFuture.completedFuture(arguments[i])
+					: adapters[i].toFuture(arguments[i]);
+		}
+
+		return CompletableFuture.allOf(futures).thenComposeAsync(ignored -> {
+
+			for (int i = 0; i < futures.length; i++) {
+				arguments[i] = futures[i].join();
+			}
+
+			try {
+
+				Object result = invocation.proceed();
+
+				return result instanceof CompletionStage ? ((CompletionStage<Object>) result).toCompletableFuture()
+						: CompletableFuture.completedFuture(result);
+
+			} catch (Throwable o_O) {
+
+				CompletableFuture<Object> failed = new CompletableFuture<>();
+				failed.completeExceptionally(o_O);
+
+				return failed;
+			}
+
+		}, executor);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+/**
+ * {@link RepositoryProxyPostProcessor} executing query methods returning a {@link java.util.concurrent.CompletableFuture}
+ * on a bounded {@link Executor}. {@link java.util.concurrent.CompletionStage} and {@link reactor.core.publisher.Mono}
+ * arguments are awaited without blocking before the query is executed with their results.
+ *
+ * @author agent
+ */
+class AsyncRepositoryProxyPostProcessor implements RepositoryProxyPostProcessor {
+
+	private final Executor executor;
+
+	/**
+	 * Creates a new {@link AsyncRepositoryProxyPostProcessor} for the given {@link Executor}.
+	 *
+	 * @param executor must not be {@literal null}.
+	 */
+	AsyncRepositoryProxyPostProcessor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryProxyPostProcessor#postProcess(org.springframework.aop.framework.ProxyFactory, org.springframework.data.repository.core.RepositoryInformation)
+	 */
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+
+		Map<Method, AsyncParameters> parameters = new HashMap<>();
+
+		for (Method method : repositoryInformation.getQueryMethods()) {
+
+			AsyncParameters asyncParameters = AsyncParameters.of(method);
+
+			if (asyncParameters != null) {
+				parameters.put(method, asyncParameters);
+			}
+		}
+
+		if (!parameters.isEmpty()) {
+			factory.addAdvice(new AsyncMethodInterceptor(parameters, executor));
+		}
+	}
+
+	/**
+	 * {@link MethodInterceptor} proceeding with invocations of query methods returning a
+	 * {@link java.util.concurrent.CompletableFuture} asynchronously.
+	 */
+	static class AsyncMethodInterceptor implements MethodInterceptor {
+
+		private final Map<Method, AsyncParameters> parameters;
+		private final Executor executor;
+
+		AsyncMethodInterceptor(Map<Method, AsyncParameters> parameters, Executor executor) {
+
+			this.parameters = parameters;
+			this.executor = executor;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+		 */
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+
+			AsyncParameters asyncParameters = parameters.get(invocation.getMethod());
+
+			return asyncParameters == null ? invocation.proceed() : asyncParameters.proceed(invocation, executor);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a derived query method parameter to not restrict the query if its value is absent, i.e. an empty wrapper or
+ * {@literal null}, instead of matching {@literal null} values. Each combination of present and absent parameters of
+ * such a method is executed as its own query prepared at bootstrap, see {@link DerivedJpaQuery}. Methods declaring a
+ * query, lock mode or entity graph or special parameters like {@link org.springframework.data.domain.Sort} are
+ * rejected at bootstrap.
+ *
+ * @author agent
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IgnoreWhenAbsent {}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.Optional;
+
+import org.springframework.util.ClassUtils;
+
+import scala.Option;
+
+/**
+ * Unwraps a single kind of wrapper type declared as query method parameter. Resolved once per parameter so that
+ * invocations only call the wrapper's accessor instead of looking up a matching converter. Guava and Scala wrappers are
+ * only supported if the library is on the classpath.
+ *
+ * @author agent
+ */
+enum ParameterUnwrapper {
+
+	JDK8_OPTIONAL(Optional.class) {
+
+		@Override
+		Object unwrap(Object value) {
+			return ((Optional<?>) value).orElse(null);
+		}
+	},
+
+	GUAVA_OPTIONAL("com.google.common.base.Optional") {
+
+		@Override
+		Object unwrap(Object value) {
+			return ((com.google.common.base.Optional<?>) value).orNull();
+		}
+	},
+
+	SCALA_OPTION("scala.Option") {
+
+		@Override
+		Object unwrap(Object value) {
+
+			Option<?> option = (Option<?>) value;
+			return option.isEmpty() ? null : option.get();
+		}
+	};
+
+	private final Class<?> wrapperType;
+
+	private ParameterUnwrapper(Class<?> wrapperType) {
+		this.wrapperType = wrapperType;
+	}
+
+	/**
+	 * Creates an unwrapper for the wrapper type of the given name, disabled if the type isn't present.
+	 */
+	private ParameterUnwrapper(String wrapperTypeName) {
+
+		ClassLoader classLoader = ParameterUnwrapper.class.getClassLoader();
+
+		this.wrapperType = ClassUtils.isPresent(wrapperTypeName, classLoader)
+				? ClassUtils.resolveClassName(wrapperTypeName, classLoader) : null;
+	}
+
+	/**
+	 * Returns the {@link ParameterUnwrapper} for the given parameter type.
+	 *
+	 * @param parameterType must not be {@literal null}.
+	 * @return the {@link ParameterUnwrapper} or {@literal null} if the type is not a supported wrapper.
+	 */
+	static ParameterUnwrapper forType(Class<?> parameterType) {
+
+		for (ParameterUnwrapper unwrapper : values()) {
+			if (unwrapper.wrapperType != null && unwrapper.wrapperType.isAssignableFrom(parameterType)) {
+				return unwrapper;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the value held by the given wrapper or {@literal null} if the wrapper is empty.
+	 *
+	 * @param value the wrapper, must not be {@literal null}.
+	 * @return
+	 */
+	abstract Object unwrap(Object value);
+}
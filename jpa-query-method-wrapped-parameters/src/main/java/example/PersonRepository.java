@@ -17,9 +17,14 @@ package example;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.repository.CrudRepository;
 
+import reactor.core.publisher.Mono;
 import scala.Option;
 
 /**
@@ -35,6 +40,15 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
 	 */
 	List<Person> findByGender(String gender);
 
+	/**
+	 * Locking the results, thus left to Spring Data instead of being derived at build time.
+	 *
+	 * @param lastname a plain {@link String}
+	 * @return
+	 */
+	@Lock(LockModeType.PESSIMISTIC_READ)
+	List<Person> findByLastname(String lastname);
+
 	/**
 	 * @param gender a Java 8 {@link Optional}
 	 * @return
@@ -53,4 +67,29 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
 	 */
 	List<Person> findByGender(Option<String> gender);
 
+	/**
+	 * Executed on the query worker pool once {@code gender} completed.
+	 *
+	 * @param gender a {@link CompletableFuture}
+	 * @return
+	 */
+	CompletableFuture<List<Person>> findByGender(CompletableFuture<String> gender);
+
+	/**
+	 * Executed on the query worker pool once {@code gender} emitted its value or completed empty.
+	 *
+	 * @param gender a Reactor {@link Mono}
+	 * @return
+	 */
+	CompletableFuture<List<Person>> findByGender(Mono<String> gender);
+
+	/**
+	 * Search form style query leaving out the restriction of each parameter that is absent.
+	 *
+	 * @param gender a Java 8 {@link Optional}, not restricting the gender if empty
+	 * @param lastname a Java 8 {@link Optional}, not restricting the last name if empty
+	 * @return
+	 */
+	List<Person> findByGenderAndLastname(@IgnoreWhenAbsent Optional<String> gender,
+			@IgnoreWhenAbsent Optional<String> lastname);
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+/**
+ * {@link RepositoryProxyPostProcessor} unwrapping {@link java.util.Optional}, Guava
+ * {@link com.google.common.base.Optional} and Scala {@link scala.Option} query method arguments before the query is
+ * executed. The {@link WrappedParameters} are resolved for all query methods when the repository proxy is created, so
+ * Spring Data's per-invocation converter lookup only ever sees plain values.
+ *
+ * @author agent
+ */
+class UnwrappingRepositoryProxyPostProcessor implements RepositoryProxyPostProcessor {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.core.support.RepositoryProxyPostProcessor#postProcess(org.springframework.aop.framework.ProxyFactory, org.springframework.data.repository.core.RepositoryInformation)
+	 */
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+
+		Map<Method, WrappedParameters> parameters = new HashMap<>();
+
+		for (Method method : repositoryInformation.getQueryMethods()) {
+
+			WrappedParameters wrappedParameters = WrappedParameters.of(method);
+
+			if (wrappedParameters != null) {
+				parameters.put(method, wrappedParameters);
+			}
+		}
+
+		if (!parameters.isEmpty()) {
+			factory.addAdvice(new UnwrappingMethodInterceptor(parameters));
+		}
+	}
+
+	/**
+	 * {@link MethodInterceptor} applying the {@link WrappedParameters} of the invoked query method.
+	 */
+	static class UnwrappingMethodInterceptor implements MethodInterceptor {
+
+		private final Map<Method, WrappedParameters> parameters;
+
+		UnwrappingMethodInterceptor(Map<Method, WrappedParameters> parameters) {
+			this.parameters = parameters;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+		 */
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+
+			WrappedParameters wrappedParameters = parameters.get(invocation.getMethod());
+
+			if (wrappedParameters != null) {
+				wrappedParameters.unwrap(invocation.getArguments());
+			}
+
+			return invocation.proceed();
+		}
+	}
+}
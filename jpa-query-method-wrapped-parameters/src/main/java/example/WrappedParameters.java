@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+
+/**
+ * The {@link ParameterUnwrapper}s for the parameters of a query method declaring wrapped parameters, resolved once at
+ * bootstrap.
+ *
+ * @author agent
+ */
+final class WrappedParameters {
+
+	private final ParameterUnwrapper[] unwrappers;
+
+	private WrappedParameters(ParameterUnwrapper[] unwrappers) {
+		this.unwrappers = unwrappers;
+	}
+
+	/**
+	 * Resolves the {@link WrappedParameters} of the given query method.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @return the {@link WrappedParameters} or {@literal null} if the method does not declare wrapped parameters.
+	 */
+	static WrappedParameters of(Method method) {
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		ParameterUnwrapper[] unwrappers = new ParameterUnwrapper[parameterTypes.length];
+		boolean wrapped = false;
+
+		for (int i = 0; i < parameterTypes.length; i++) {
+
+			unwrappers[i] = ParameterUnwrapper.forType(parameterTypes[i]);
+			wrapped |= unwrappers[i] != null;
+		}
+
+		return wrapped ? new WrappedParameters(unwrappers) : null;
+	}
+
+	/**
+	 * Replaces the wrapped values within the given invocation arguments with the values they hold.
+	 *
+	 * @param arguments must not be {@literal null}.
+	 */
+	void unwrap(Object[] arguments) {
+
+		for (int i = 0; i < unwrappers.length; i++) {
+			if (unwrappers[i] != null && arguments[i] != null) {
+				arguments[i] = unwrappers[i].unwrap(arguments[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configures the repositories to unwrap wrapped query method parameters through binders resolved at bootstrap and to
+ * execute query methods returning a {@link java.util.concurrent.CompletableFuture} on a bounded worker pool.
+ *
+ * @author agent
+ */
+@Configuration
+@EnableJpaRepositories(repositoryFactoryBeanClass = WrappedParametersJpaRepositoryFactoryBean.class)
+public class WrappedParametersConfiguration {
+
+	/**
+	 * The {@link DerivedQueries} parsed at build time, loaded once and shared by all repositories. Disabled by default as
+	 * the {@code BootstrapBenchmarks} didn't show a measurable startup improvement over parsing the method names.
+	 */
+	@Bean
+	public DerivedQueries derivedQueries(@Value("${derived-queries.aot.enabled:false}") boolean enabled,
+			ResourceLoader resourceLoader) {
+		return enabled ? DerivedQueries.load(resourceLoader.getClassLoader()) : DerivedQueries.none();
+	}
+
+	/**
+	 * Worker pool executing asynchronous queries. Its size should not exceed the number of JDBC connections. Queries
+	 * exceeding the queue capacity complete exceptionally instead of blocking the caller.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor queryExecutor(@Value("${wrapped-parameters.executor.pool-size:4}") int poolSize,
+			@Value("${wrapped-parameters.executor.queue-capacity:1000}") int queueCapacity) {
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("query-");
+
+		return executor;
+	}
+}
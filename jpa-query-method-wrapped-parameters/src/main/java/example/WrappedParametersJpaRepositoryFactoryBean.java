@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.Serializable;
+import java.util.concurrent.Executor;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.repository.query.EvaluationContextProvider;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+
+/**
+ * {@link JpaRepositoryFactoryBean} registering the {@link AsyncRepositoryProxyPostProcessor} and, unless disabled through
+ * {@code wrapped-parameters.unwrapping.enabled}, the {@link UnwrappingRepositoryProxyPostProcessor} with the repository
+ * factory. Derived queries are created from the {@link DerivedQueries} bean if it contains the queries parsed at build
+ * time, see {@link WrappedParametersConfiguration#derivedQueries(boolean, org.springframework.core.io.ResourceLoader)}.
+ * Query methods declaring {@link IgnoreWhenAbsent} parameters are resolved to {@link DerivedJpaQuery} instances leaving
+ * out absent arguments.
+ *
+ * @author agent
+ */
+public class WrappedParametersJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable>
+		extends JpaRepositoryFactoryBean<T, S, ID> {
+
+	private Executor queryExecutor;
+	private DerivedQueries queries;
+	private boolean unwrapping = true;
+
+	@Autowired
+	public void setQueryExecutor(Executor queryExecutor) {
+		this.queryExecutor = queryExecutor;
+	}
+
+	@Autowired
+	public void setDerivedQueries(DerivedQueries queries) {
+		this.queries = queries;
+	}
+
+	/**
+	 * Whether to unwrap wrapped parameters through the {@link UnwrappingRepositoryProxyPostProcessor} instead of Spring
+	 * Data's converter lookup on each invocation. Disabling it is only meant for comparing both modes as
+	 * {@link DerivedJpaQuery} instances expect unwrapped arguments and Spring Data fails to unwrap an empty Scala
+	 * {@link scala.Option}.
+	 */
+	@Value("${wrapped-parameters.unwrapping.enabled:true}")
+	public void setUnwrapping(boolean unwrapping) {
+		this.unwrapping = unwrapping;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean#createRepositoryFactory(javax.persistence.EntityManager)
+	 */
+	@Override
+	protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+
+		RepositoryFactorySupport factory = new JpaRepositoryFactory(entityManager) {
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.data.jpa.repository.support.JpaRepositoryFactory#getQueryLookupStrategy(org.springframework.data.repository.query.QueryLookupStrategy.Key, org.springframework.data.repository.query.EvaluationContextProvider)
+			 */
+			@Override
+			protected QueryLookupStrategy getQueryLookupStrategy(Key key,
+					EvaluationContextProvider evaluationContextProvider) {
+
+				QueryLookupStrategy derivation = new AotQueryLookupStrategy(
+						super.getQueryLookupStrategy(key, evaluationContextProvider), key, entityManager, queries);
+
+				return new AbsentParameterQueryLookupStrategy(derivation, key, entityManager, queries);
+			}
+		};
+
+		factory.addRepositoryProxyPostProcessor(new AsyncRepositoryProxyPostProcessor(queryExecutor));
+
+		if (unwrapping) {
+			factory.addRepositoryProxyPostProcessor(new UnwrappingRepositoryProxyPostProcessor());
+		}
+
+		return factory;
+	}
+}
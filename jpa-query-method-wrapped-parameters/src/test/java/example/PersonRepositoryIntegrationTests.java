@@ -18,7 +18,14 @@ package example;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -26,9 +33,20 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.core.support.PropertiesBasedNamedQueries;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import reactor.core.publisher.Mono;
 import scala.Option;
 
 /**
@@ -39,11 +57,13 @@ import scala.Option;
 @SuppressWarnings("unused")
 @RunWith(SpringRunner.class)
 @Transactional
-@SpringBootTest
+@SpringBootTest(properties = "derived-queries.aot.enabled=true")
 @SpringBootApplication
 public class PersonRepositoryIntegrationTests {
 
 	@Autowired PersonRepository repository;
+	@Autowired EntityManager em;
+	@Autowired DerivedQueries queries;
 
 	Person gomez, mortica, thing, itt;
 
@@ -89,6 +109,105 @@ public class PersonRepositoryIntegrationTests {
 	public void findByGenderWrappedInScalaOption() {
 
 		assertThat(repository.findByGender(Option.apply("male")), contains(gomez));
+
+		assertThat(repository.findByGender(Option.<String> empty()), hasItems(thing, itt));
+		assertThat(repository.findByGender(Option.<String> empty()), not(hasItems(gomez, mortica)));
 	}
 
+	/**
+	 * Not transactional as the data needs to be visible to the query worker threads.
+	 */
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void findByGenderWrappedInCompletableFuture() throws Exception {
+
+		CompletableFuture<String> gender = new CompletableFuture<>();
+		CompletableFuture<List<Person>> result = repository.findByGender(gender);
+
+		assertThat(result.isDone(), is(false));
+
+		gender.complete("male");
+
+		assertThat(result.get(10, TimeUnit.SECONDS), contains(gomez));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void findByGenderWrappedInMono() throws Exception {
+
+		assertThat(repository.findByGender(Mono.just("female")).get(10, TimeUnit.SECONDS), contains(mortica));
+		assertThat(repository.findByGender(Mono.<String> empty()).get(10, TimeUnit.SECONDS), hasItems(thing, itt));
+	}
+
+	@Test
+	public void ignoresAbsentParameters() {
+
+		assertThat(repository.findByGenderAndLastname(Optional.empty(), Optional.empty()),
+				containsInAnyOrder(gomez, mortica, thing, itt));
+		assertThat(repository.findByGenderAndLastname(Optional.empty(), Optional.of("Addams")),
+				containsInAnyOrder(gomez, mortica));
+		assertThat(repository.findByGenderAndLastname(Optional.of("female"), Optional.empty()), contains(mortica));
+		assertThat(repository.findByGenderAndLastname(Optional.of("male"), Optional.of("Addams")), contains(gomez));
+		assertThat(repository.findByGenderAndLastname(Optional.of("male"), Optional.of("Itt")), is(empty()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsIgnoringAbsentParametersWithSpecialParameters() throws Exception {
+		resolveUnsupported("findByGenderAndLastname", Optional.class, Optional.class, Sort.class);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsIgnoringAbsentParametersOfDeclaredQueries() throws Exception {
+		resolveUnsupported("findByGender", Optional.class);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsIgnoringAbsentParametersOfLockingQueries() throws Exception {
+		resolveUnsupported("findByLastname", Optional.class);
+	}
+
+	@Test
+	public void derivesQueriesAtBuildTime() throws Exception {
+
+		assertThat(queries.get(PersonRepository.class.getMethod("findByGender", String.class)), notNullValue());
+		assertThat(queries.get(PersonRepository.class.getMethod("findByGenderAndLastname", Optional.class,
+				Optional.class)), notNullValue());
+		assertThat(queries.get(PersonRepository.class.getMethod("findByLastname", String.class)), nullValue());
+	}
+
+	@Test
+	public void resolvesUnwrappersForWrappedParametersOnly() throws Exception {
+
+		assertThat(WrappedParameters.of(PersonRepository.class.getMethod("findByGender", String.class)), nullValue());
+
+		Object[] arguments = { com.google.common.base.Optional.of("male") };
+
+		WrappedParameters.of(PersonRepository.class.getMethod("findByGender", com.google.common.base.Optional.class))
+				.unwrap(arguments);
+
+		assertThat(arguments, arrayContaining((Object) "male"));
+	}
+
+	private void resolveUnsupported(String name, Class<?>... parameterTypes) throws Exception {
+
+		QueryLookupStrategy strategy = new AbsentParameterQueryLookupStrategy((method, metadata, factory, namedQueries) -> {
+			throw new AssertionError("Must not fall back for " + method);
+		}, Key.CREATE_IF_NOT_FOUND, em, DerivedQueries.none());
+
+		strategy.resolveQuery(UnsupportedRepository.class.getMethod(name, parameterTypes),
+				new DefaultRepositoryMetadata(UnsupportedRepository.class), new SpelAwareProxyProjectionFactory(),
+				new PropertiesBasedNamedQueries(new Properties()));
+	}
+
+	interface UnsupportedRepository extends Repository<Person, Long> {
+
+		List<Person> findByGenderAndLastname(@IgnoreWhenAbsent Optional<String> gender,
+				@IgnoreWhenAbsent Optional<String> lastname, Sort sort);
+
+		@Query("select p from Person p where p.gender = ?1")
+		List<Person> findByGender(@IgnoreWhenAbsent Optional<String> gender);
+
+		@Lock(LockModeType.PESSIMISTIC_READ)
+		List<Person> findByLastname(@IgnoreWhenAbsent Optional<String> lastname);
+	}
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.util.ClassTypeInformation;
+
+import com.mongodb.MongoClient;
+
+/**
+ * JMH benchmark measuring the bootstrap of the mapping metadata, index definitions and repositories for the entities
+ * of a {@link SyntheticDataset} with composed annotations merged through a {@link MergedAnnotationCache}
+ * ({@code cached=true}) and on each lookup ({@code cached=false}). Index definitions are resolved the way
+ * {@link org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexCreator} does without creating them so
+ * that the benchmark does not require a running MongoDB instance.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BootstrapBenchmarks {
+
+	/**
+	 * Whether to share a {@link MergedAnnotationCache} across the mapping context and the repository factory.
+	 */
+	@Param({ "true", "false" }) boolean cached;
+
+	MongoClient client;
+	MongoDbFactory mongoDbFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		this.client = new MongoClient();
+		this.mongoDbFactory = new SimpleMongoDbFactory(client, "benchmark");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		client.close();
+	}
+
+	@Benchmark
+	public Object bootstrap(SyntheticDataset dataset) {
+
+		MergedAnnotationCache annotations = new MergedAnnotationCache();
+
+		MongoMappingContext mappingContext = cached ? new MergedAnnotationMongoMappingContext(annotations)
+				: new MongoMappingContext();
+		mappingContext.setInitialEntitySet(dataset.entityTypes);
+
+		MongoTemplate template = new MongoTemplate(mongoDbFactory,
+				new MappingMongoConverter(new DefaultDbRefResolver(mongoDbFactory), mappingContext));
+
+		// detach the index creator registered by MongoTemplate as it requires a running server
+		mappingContext.setApplicationEventPublisher(null);
+		mappingContext.afterPropertiesSet();
+
+		MongoPersistentEntityIndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+		List<Object> result = new ArrayList<>(dataset.entities * 2);
+
+		for (Class<?> entityType : dataset.entityTypes) {
+			indexResolver.resolveIndexFor(ClassTypeInformation.from(entityType)).forEach(result::add);
+		}
+
+		RepositoryFactorySupport repositoryFactory = cached
+				? new MergedAnnotationMongoRepositoryFactory(template, annotations) : new MongoRepositoryFactory(template);
+		repositoryFactory.setBeanClassLoader(dataset.classLoader);
+
+		for (Class<?> repositoryInterface : dataset.repositoryInterfaces) {
+			result.add(repositoryFactory.getRepository(repositoryInterface));
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * JMH state generating {@link #entities} {@link SyntheticDocument} subclasses, each declaring a property indexed
+ * through {@link MyGeoIndexAnnotation}, along with a repository per entity declaring a query method annotated with
+ * {@link FindWalter}, one annotated with {@link org.springframework.data.mongodb.repository.Query} and two derived
+ * query methods. The sources are compiled once per trial and loaded through a dedicated class loader.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public class SyntheticDataset {
+
+	private static final String ENTITY = "package example;%n%n" //
+			+ "@org.springframework.data.mongodb.core.mapping.Document%n" //
+			+ "public class SyntheticEntity%1$d extends SyntheticDocument {%n%n" //
+			+ "	String firstname;%n" //
+			+ "	String lastname;%n" //
+			+ "	@MyGeoIndexAnnotation(\"location_%1$d\") org.springframework.data.geo.Point location;%n%n" //
+			+ "	public String getFirstname() { return firstname; }%n" //
+			+ "	public void setFirstname(String firstname) { this.firstname = firstname; }%n" //
+			+ "	public String getLastname() { return lastname; }%n" //
+			+ "	public void setLastname(String lastname) { this.lastname = lastname; }%n" //
+			+ "	public org.springframework.data.geo.Point getLocation() { return location; }%n" //
+			+ "	public void setLocation(org.springframework.data.geo.Point location) { this.location = location; }%n" //
+			+ "}%n";
+
+	private static final String REPOSITORY = "package example;%n%n" //
+			+ "import java.util.List;%n%n" //
+			+ "public interface SyntheticEntity%1$dRepository%n" //
+			+ "		extends org.springframework.data.repository.CrudRepository<SyntheticEntity%1$d, String> {%n%n" //
+			+ "	@FindWalter%n" //
+			+ "	List<SyntheticEntity%1$d> findWalter();%n%n" //
+			+ "	@org.springframework.data.mongodb.repository.Query(\"{ 'lastname' : ?0 }\")%n" //
+			+ "	List<SyntheticEntity%1$d> findByQuery(String lastname);%n%n" //
+			+ "	List<SyntheticEntity%1$d> findByFirstname(String firstname);%n%n" //
+			+ "	List<SyntheticEntity%1$d> findByLastnameAndFirstname(String lastname, String firstname);%n" //
+			+ "}%n";
+
+	/**
+	 * The number of entities and repositories to generate.
+	 */
+	@Param({ "100", "500" }) int entities;
+
+	Path directory;
+	URLClassLoader classLoader;
+	Set<Class<?>> entityTypes;
+	List<Class<?>> repositoryInterfaces;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, ClassNotFoundException {
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		if (compiler == null) {
+			throw new IllegalStateException("Generating the synthetic entities requires a JDK!");
+		}
+
+		this.directory = Files.createTempDirectory("synthetic-entities");
+
+		List<File> sources = new ArrayList<>(entities * 2);
+
+		for (int i = 0; i < entities; i++) {
+			sources.add(write("SyntheticEntity" + i, String.format(ENTITY, i)));
+			sources.add(write("SyntheticEntity" + i + "Repository", String.format(REPOSITORY, i)));
+		}
+
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+
+			List<String> options = Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"), "-d",
+					directory.toString());
+
+			if (!compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(sources))
+					.call()) {
+				throw new IllegalStateException("Compiling the synthetic entities failed!");
+			}
+		}
+
+		this.classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, getClass().getClassLoader());
+		this.entityTypes = new HashSet<>(entities);
+		this.repositoryInterfaces = new ArrayList<>(entities);
+
+		for (int i = 0; i < entities; i++) {
+			entityTypes.add(classLoader.loadClass("example.SyntheticEntity" + i));
+			repositoryInterfaces.add(classLoader.loadClass("example.SyntheticEntity" + i + "Repository"));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+
+		classLoader.close();
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	private File write(String className, String source) throws IOException {
+		return Files.write(directory.resolve(className + ".java"), source.getBytes(StandardCharsets.UTF_8)).toFile();
+	}
+}
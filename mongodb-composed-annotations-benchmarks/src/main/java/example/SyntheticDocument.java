@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.geo.Point;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Base class of the entities generated by {@link SyntheticDataset} declaring properties shared by all entities.
+ *
+ * @author agent
+ */
+@Getter
+@Setter
+public abstract class SyntheticDocument {
+
+	@Id String id;
+
+	@MyGeoIndexAnnotation("position") Point position;
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import lombok.Value;
+
+/**
+ * Cache for merged annotations, i.e. annotations declared directly or through composed annotations using
+ * {@link AliasFor}, shared by the mapping context and the repository factories of an application context.
+ * <p>
+ * Persistent properties and query methods probe their accessors, fields and methods for a dozen annotation types most
+ * of which are absent. Each probe walks the type hierarchy of the element, which is expensive for methods as
+ * overridden methods are looked up on each supertype. The cache therefore indexes the annotation types reachable from
+ * a {@link Field} or {@link Method}, including meta-annotations and annotations on overridden methods, once per
+ * element and answers lookups for types outside of that index without searching. Merged annotations are synthesized
+ * once per element and annotation type.
+ *
+ * @author agent
+ */
+public class MergedAnnotationCache {
+
+	private final Map<AnnotationCacheKey, Optional<Annotation>> annotations = new ConcurrentHashMap<>();
+	private final Map<AnnotatedElement, Set<Class<? extends Annotation>>> annotationTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the merged annotation of the given type on the given element using the semantics of
+	 * {@link AnnotatedElementUtils#findMergedAnnotation(AnnotatedElement, Class)}.
+	 *
+	 * @param element can be {@literal null}.
+	 * @param annotationType must not be {@literal null}.
+	 * @return the merged annotation or {@literal null} if the element is {@literal null} or not annotated.
+	 */
+	@SuppressWarnings("unchecked")
+	public <A extends Annotation> A findMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+
+		if (element == null || !isCandidate(element, annotationType)) {
+			return null;
+		}
+
+		return (A) annotations.computeIfAbsent(new AnnotationCacheKey(element, annotationType),
+				key -> Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(element, annotationType))).orElse(null);
+	}
+
+	/**
+	 * @return the number of cached merged annotations.
+	 */
+	public int size() {
+		return annotations.size();
+	}
+
+	/**
+	 * Removes all cached lookups.
+	 */
+	public void clear() {
+
+		annotations.clear();
+		annotationTypes.clear();
+	}
+
+	private boolean isCandidate(AnnotatedElement element, Class<? extends Annotation> annotationType) {
+
+		if (!(element instanceof Field || element instanceof Method)) {
+			return true;
+		}
+
+		return annotationTypes.computeIfAbsent(element, MergedAnnotationCache::getReachableAnnotationTypes)
+				.contains(annotationType);
+	}
+
+	/**
+	 * Collects the annotation types declared on the given {@link Field} or {@link Method} and on methods it might
+	 * override along with their meta-annotations. The result is a superset of the annotation types found by
+	 * {@link AnnotatedElementUtils#findMergedAnnotation(AnnotatedElement, Class)}.
+	 */
+	private static Set<Class<? extends Annotation>> getReachableAnnotationTypes(AnnotatedElement element) {
+
+		Set<Class<? extends Annotation>> result = new HashSet<>();
+
+		collectAnnotationTypes(element.getAnnotations(), result);
+
+		if (element instanceof Method) {
+
+			Method method = BridgeMethodResolver.findBridgedMethod((Method) element);
+			Set<Class<?>> supertypes = new LinkedHashSet<>();
+
+			collectAnnotationTypes(method.getAnnotations(), result);
+			collectSupertypes(method.getDeclaringClass(), supertypes);
+
+			for (Class<?> supertype : supertypes) {
+				ReflectionUtils.doWithLocalMethods(supertype, candidate -> {
+
+					if (candidate.getName().equals(method.getName())
+							&& candidate.getParameterCount() == method.getParameterCount()) {
+						collectAnnotationTypes(candidate.getAnnotations(), result);
+					}
+				});
+			}
+		}
+
+		return result;
+	}
+
+	private static void collectAnnotationTypes(Annotation[] annotations, Set<Class<? extends Annotation>> result) {
+
+		for (Annotation annotation : annotations) {
+
+			Class<? extends Annotation> annotationType = annotation.annotationType();
+
+			if (result.add(annotationType)) {
+				collectAnnotationTypes(annotationType.getAnnotations(), result);
+			}
+		}
+	}
+
+	private static void collectSupertypes(Class<?> type, Set<Class<?>> result) {
+
+		if (type == null || !result.add(type)) {
+			return;
+		}
+
+		collectSupertypes(type.getSuperclass(), result);
+
+		for (Class<?> ifc : type.getInterfaces()) {
+			collectSupertypes(ifc, result);
+		}
+	}
+
+	@Value
+	static class AnnotationCacheKey {
+
+		AnnotatedElement element;
+		Class<? extends Annotation> annotationType;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.annotation.Persistent;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+/**
+ * Configures the mapping context and the repositories to share a {@link MergedAnnotationCache} for the lifetime of the
+ * application context so that composed annotations are merged once per annotated element during bootstrap.
+ *
+ * @author agent
+ */
+@Configuration
+@EnableMongoRepositories(repositoryFactoryBeanClass = MergedAnnotationMongoRepositoryFactoryBean.class)
+public class MergedAnnotationConfiguration {
+
+	@Bean
+	public MergedAnnotationCache mergedAnnotationCache() {
+		return new MergedAnnotationCache();
+	}
+
+	/**
+	 * Replaces Spring Boot's {@link MongoMappingContext} keeping its entity scanning and field naming strategy.
+	 */
+	@Bean
+	public MongoMappingContext mongoMappingContext(ApplicationContext applicationContext, MongoProperties properties,
+			MergedAnnotationCache mergedAnnotationCache) throws ClassNotFoundException {
+
+		MongoMappingContext mappingContext = new MergedAnnotationMongoMappingContext(mergedAnnotationCache);
+		mappingContext.setInitialEntitySet(new EntityScanner(applicationContext).scan(Document.class, Persistent.class));
+
+		Class<?> strategyClass = properties.getFieldNamingStrategy();
+
+		if (strategyClass != null) {
+			mappingContext.setFieldNamingStrategy((FieldNamingStrategy) BeanUtils.instantiate(strategyClass));
+		}
+
+		return mappingContext;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mapping.model.PropertyNameFieldNamingStrategy;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.mongodb.core.mapping.BasicMongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+/**
+ * {@link MongoMappingContext} creating persistent properties that resolve composed annotations such as
+ * {@link MyGeoIndexAnnotation} through a {@link MergedAnnotationCache}.
+ *
+ * @author agent
+ */
+public class MergedAnnotationMongoMappingContext extends MongoMappingContext {
+
+	private final MergedAnnotationCache annotations;
+	private FieldNamingStrategy fieldNamingStrategy = PropertyNameFieldNamingStrategy.INSTANCE;
+
+	/**
+	 * Creates a new {@link MergedAnnotationMongoMappingContext}.
+	 *
+	 * @param annotations must not be {@literal null}.
+	 */
+	public MergedAnnotationMongoMappingContext(MergedAnnotationCache annotations) {
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.mapping.MongoMappingContext#setFieldNamingStrategy(org.springframework.data.mapping.model.FieldNamingStrategy)
+	 */
+	@Override
+	public void setFieldNamingStrategy(FieldNamingStrategy fieldNamingStrategy) {
+
+		super.setFieldNamingStrategy(fieldNamingStrategy);
+
+		this.fieldNamingStrategy = fieldNamingStrategy == null ? PropertyNameFieldNamingStrategy.INSTANCE
+				: fieldNamingStrategy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.mapping.MongoMappingContext#createPersistentProperty(java.lang.reflect.Field, java.beans.PropertyDescriptor, org.springframework.data.mongodb.core.mapping.BasicMongoPersistentEntity, org.springframework.data.mapping.model.SimpleTypeHolder)
+	 */
+	@Override
+	public MongoPersistentProperty createPersistentProperty(Field field, PropertyDescriptor descriptor,
+			BasicMongoPersistentEntity<?> owner, SimpleTypeHolder simpleTypeHolder) {
+		return new MergedAnnotationMongoPersistentProperty(field, descriptor, owner, simpleTypeHolder, fieldNamingStrategy,
+				annotations);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.mongodb.core.mapping.CachingMongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+/**
+ * {@link CachingMongoPersistentProperty} looking up annotations on its accessors and field through a shared
+ * {@link MergedAnnotationCache}.
+ *
+ * @author agent
+ */
+class MergedAnnotationMongoPersistentProperty extends CachingMongoPersistentProperty {
+
+	private final MergedAnnotationCache annotations;
+
+	/**
+	 * Creates a new {@link MergedAnnotationMongoPersistentProperty}.
+	 *
+	 * @param field must not be {@literal null}.
+	 * @param propertyDescriptor can be {@literal null}.
+	 * @param owner must not be {@literal null}.
+	 * @param simpleTypeHolder must not be {@literal null}.
+	 * @param fieldNamingStrategy must not be {@literal null}.
+	 * @param annotations must not be {@literal null}.
+	 */
+	MergedAnnotationMongoPersistentProperty(Field field, PropertyDescriptor propertyDescriptor,
+			MongoPersistentEntity<?> owner, SimpleTypeHolder simpleTypeHolder, FieldNamingStrategy fieldNamingStrategy,
+			MergedAnnotationCache annotations) {
+
+		super(field, propertyDescriptor, owner, simpleTypeHolder, fieldNamingStrategy);
+
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mapping.model.AnnotationBasedPersistentProperty#findAnnotation(java.lang.Class)
+	 */
+	@Override
+	public <A extends Annotation> A findAnnotation(Class<A> annotationType) {
+
+		// invoked by the super constructor before the cache is assigned
+		if (annotations == null) {
+			return super.findAnnotation(annotationType);
+		}
+
+		for (Method method : new Method[] { getGetter(), getSetter() }) {
+
+			A annotation = annotations.findMergedAnnotation(method, annotationType);
+
+			if (annotation != null) {
+				return annotation;
+			}
+		}
+
+		return annotations.findMergedAnnotation(getField(), annotationType);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.query.MongoQueryMethod;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link MongoQueryMethod} looking up {@link Query} and {@link Meta} annotations, declared directly or through composed
+ * annotations such as {@link FindWalter}, through a shared {@link MergedAnnotationCache}. Checking for {@link Meta}
+ * happens on each query execution.
+ *
+ * @author agent
+ */
+class MergedAnnotationMongoQueryMethod extends MongoQueryMethod {
+
+	private final Method method;
+	private final MergedAnnotationCache annotations;
+
+	/**
+	 * Creates a new {@link MergedAnnotationMongoQueryMethod}.
+	 *
+	 * @param method must not be {@literal null}.
+	 * @param metadata must not be {@literal null}.
+	 * @param projectionFactory must not be {@literal null}.
+	 * @param mappingContext must not be {@literal null}.
+	 * @param annotations must not be {@literal null}.
+	 */
+	MergedAnnotationMongoQueryMethod(Method method, RepositoryMetadata metadata, ProjectionFactory projectionFactory,
+			MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+			MergedAnnotationCache annotations) {
+
+		super(method, metadata, projectionFactory, mappingContext);
+
+		this.method = method;
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.MongoQueryMethod#hasAnnotatedQuery()
+	 */
+	@Override
+	public boolean hasAnnotatedQuery() {
+		return findAnnotatedQuery() != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.MongoQueryMethod#hasQueryMetaAttributes()
+	 */
+	@Override
+	public boolean hasQueryMetaAttributes() {
+		return annotations.findMergedAnnotation(method, Meta.class) != null;
+	}
+
+	/**
+	 * Returns the query declared through a {@link Query} annotation.
+	 *
+	 * @return the query or {@literal null} if the method does not declare a query.
+	 */
+	String findAnnotatedQuery() {
+
+		Query query = annotations.findMergedAnnotation(method, Query.class);
+		String value = query == null ? null : query.value();
+
+		return StringUtils.hasText(value) ? value : null;
+	}
+}
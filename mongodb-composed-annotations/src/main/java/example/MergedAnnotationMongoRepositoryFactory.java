@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.query.EvaluationContextProvider;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+
+/**
+ * {@link MongoRepositoryFactory} resolving query annotations through a {@link MergedAnnotationCache}.
+ *
+ * @author agent
+ */
+public class MergedAnnotationMongoRepositoryFactory extends MongoRepositoryFactory {
+
+	private final MongoOperations operations;
+	private final MergedAnnotationCache annotations;
+
+	/**
+	 * Creates a new {@link MergedAnnotationMongoRepositoryFactory}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param annotations must not be {@literal null}.
+	 */
+	public MergedAnnotationMongoRepositoryFactory(MongoOperations operations, MergedAnnotationCache annotations) {
+
+		super(operations);
+
+		this.operations = operations;
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.support.MongoRepositoryFactory#getQueryLookupStrategy(org.springframework.data.repository.query.QueryLookupStrategy.Key, org.springframework.data.repository.query.EvaluationContextProvider)
+	 */
+	@Override
+	protected QueryLookupStrategy getQueryLookupStrategy(Key key, EvaluationContextProvider evaluationContextProvider) {
+		return new MergedAnnotationQueryLookupStrategy(operations, evaluationContextProvider, annotations);
+	}
+}
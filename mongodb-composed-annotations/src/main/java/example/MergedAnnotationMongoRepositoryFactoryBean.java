@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.io.Serializable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+/**
+ * {@link MongoRepositoryFactoryBean} creating {@link MergedAnnotationMongoRepositoryFactory} instances sharing the
+ * {@link MergedAnnotationCache} of the application context.
+ *
+ * @author agent
+ */
+public class MergedAnnotationMongoRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable>
+		extends MongoRepositoryFactoryBean<T, S, ID> {
+
+	private MergedAnnotationCache annotations;
+
+	@Autowired
+	public void setMergedAnnotationCache(MergedAnnotationCache annotations) {
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean#getFactoryInstance(org.springframework.data.mongodb.core.MongoOperations)
+	 */
+	@Override
+	protected RepositoryFactorySupport getFactoryInstance(MongoOperations operations) {
+		return new MergedAnnotationMongoRepositoryFactory(operations, annotations);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import java.lang.reflect.Method;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.query.PartTreeMongoQuery;
+import org.springframework.data.mongodb.repository.query.StringBasedMongoQuery;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.EvaluationContextProvider;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * {@link QueryLookupStrategy} creating {@link MergedAnnotationMongoQueryMethod}s and resolving annotated queries
+ * through the {@link MergedAnnotationCache} before falling back to query derivation.
+ *
+ * @author agent
+ */
+class MergedAnnotationQueryLookupStrategy implements QueryLookupStrategy {
+
+	private static final SpelExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+
+	private final MongoOperations operations;
+	private final EvaluationContextProvider evaluationContextProvider;
+	private final MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext;
+	private final MergedAnnotationCache annotations;
+
+	/**
+	 * Creates a new {@link MergedAnnotationQueryLookupStrategy}.
+	 *
+	 * @param operations must not be {@literal null}.
+	 * @param evaluationContextProvider must not be {@literal null}.
+	 * @param annotations must not be {@literal null}.
+	 */
+	MergedAnnotationQueryLookupStrategy(MongoOperations operations, EvaluationContextProvider evaluationContextProvider,
+			MergedAnnotationCache annotations) {
+
+		this.operations = operations;
+		this.evaluationContextProvider = evaluationContextProvider;
+		this.mappingContext = operations.getConverter().getMappingContext();
+		this.annotations = annotations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.query.QueryLookupStrategy#resolveQuery(java.lang.reflect.Method, org.springframework.data.repository.core.RepositoryMetadata, org.springframework.data.projection.ProjectionFactory, org.springframework.data.repository.core.NamedQueries)
+	 */
+	@Override
+	public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata, ProjectionFactory factory,
+			NamedQueries namedQueries) {
+
+		MergedAnnotationMongoQueryMethod queryMethod = new MergedAnnotationMongoQueryMethod(method, metadata, factory,
+				mappingContext, annotations);
+		String namedQueryName = queryMethod.getNamedQueryName();
+
+		if (namedQueries.hasQuery(namedQueryName)) {
+			return new StringBasedMongoQuery(namedQueries.getQuery(namedQueryName), queryMethod, operations,
+					EXPRESSION_PARSER, evaluationContextProvider);
+		}
+
+		String query = queryMethod.findAnnotatedQuery();
+
+		if (query != null) {
+			return new StringBasedMongoQuery(query, queryMethod, operations, EXPRESSION_PARSER, evaluationContextProvider);
+		}
+
+		return new PartTreeMongoQuery(queryMethod, operations);
+	}
+}
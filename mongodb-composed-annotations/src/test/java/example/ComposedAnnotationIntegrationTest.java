@@ -28,7 +28,9 @@ import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Metrics;
 import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
 import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -110,4 +112,18 @@ public class ComposedAnnotationIntegrationTest {
 		assertThat(geoResult.getContent(), is(equalTo(carWash)));
 		assertThat(geoResult.getDistance().getValue(), is(closeTo(1.2, 0.1)));
 	}
+
+	/**
+	 * Resolve the {@link GeoSpatialIndexed} annotation merged from {@link MyGeoIndexAnnotation} through the
+	 * {@link MergedAnnotationCache}.
+	 */
+	@Test
+	public void resolvesComposedAnnotationsThroughMergedAnnotationCache() {
+
+		MongoPersistentProperty property = operations.getConverter().getMappingContext()
+				.getPersistentEntity(ImprovedVenue.class).getPersistentProperty("point");
+
+		assertThat(property, is(instanceOf(MergedAnnotationMongoPersistentProperty.class)));
+		assertThat(property.findAnnotation(GeoSpatialIndexed.class).name(), is("index_name"));
+	}
 }
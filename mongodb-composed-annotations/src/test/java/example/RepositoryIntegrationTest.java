@@ -39,6 +39,7 @@ import org.springframework.test.context.junit4.SpringRunner;
 public class RepositoryIntegrationTest {
 
 	@Autowired PersonRepository repository;
+	@Autowired MergedAnnotationCache annotations;
 
 	Person skyler, walter, flynn;
 
@@ -73,4 +74,18 @@ public class RepositoryIntegrationTest {
 
 		assertThat(result, contains(walter));
 	}
+
+	/**
+	 * Resolve the {@link Query} annotation merged from {@link FindWalter} through the {@link MergedAnnotationCache}
+	 * populated during bootstrap.
+	 */
+	@Test
+	public void resolvesComposedAnnotationsDuringBootstrap() throws Exception {
+
+		Query query = annotations.findMergedAnnotation(
+				PersonRepository.class.getMethod("findWalterUsingComposedAnnotations"), Query.class);
+
+		assertThat(query.value(), is("{ 'firstname' : 'Walter' }"));
+		assertThat(annotations.size(), is(greaterThan(0)));
+	}
 }